@@ -0,0 +1,4 @@
+#!/bin/bash
+# Permite conexões de replicação (pg_basebackup / streaming) vindas da rede do compose
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,69 @@
+#!/bin/bash
+# Leitura seguida de escrita na mesma requisição com réplica de leitura ativa.
+# Pré-requisitos:
+#   docker compose --profile replica up -d
+#   ./gradlew bootRun --args='--spring.profiles.active=replica'
+# Uso: docker/replica-smoke.sh [url-base] [repetições]
+set -euo pipefail
+
+BASE_URL="${1:-http://localhost:8090}"
+ROUNDS="${2:-20}"
+EMAIL="replica-smoke-$(date +%s)-$$@processofit.local"
+PASSWORD="replica-smoke"
+
+fail() {
+    echo "FALHOU: $*" >&2
+    exit 1
+}
+
+# status HTTP de uma requisição autenticada; corpo em $BODY_FILE
+BODY_FILE="$(mktemp)"
+trap 'rm -f "$BODY_FILE"' EXIT
+call() {
+    local method="$1" path="$2" data="${3:-}"
+    local args=(-s -o "$BODY_FILE" -w '%{http_code}' -X "$method" -H "Authorization: Bearer $TOKEN")
+    if [ -n "$data" ]; then
+        args+=(-H 'Content-Type: application/json' --data "$data")
+    fi
+    curl "${args[@]}" "$BASE_URL$path"
+}
+
+status=$(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' \
+    --data "$(jq -n --arg e "$EMAIL" --arg p "$PASSWORD" '{name: "Replica Smoke", email: $e, password: $p, role: "USER"}')" \
+    "$BASE_URL/auth/register")
+[ "$status" = "201" ] || fail "cadastro respondeu $status"
+
+TOKEN=$(curl -s -H 'Content-Type: application/json' \
+    --data "$(jq -n --arg e "$EMAIL" --arg p "$PASSWORD" '{email: $e, password: $p}')" \
+    "$BASE_URL/auth/login" | jq -r .token)
+[ -n "$TOKEN" ] && [ "$TOKEN" != "null" ] || fail "login sem token"
+
+# o id do usuário vem na claim uid do JWT
+payload=$(cut -d. -f2 <<< "$TOKEN" | tr '_-' '/+')
+while [ $(( ${#payload} % 4 )) -ne 0 ]; do payload="$payload="; done
+USER_ID=$(base64 -d <<< "$payload" | jq -r .uid)
+
+for i in $(seq 1 "$ROUNDS"); do
+    # GET e em seguida PATCH (que lê e grava na mesma requisição): a escrita não pode herdar a conexão da leitura
+    status=$(call GET "/api/users/$USER_ID")
+    [ "$status" = "200" ] || fail "rodada $i: GET respondeu $status"
+
+    status=$(call PATCH "/api/users/$USER_ID/nome" "Replica Smoke $i")
+    [ "$status" = "200" ] || fail "rodada $i: PATCH respondeu $status"
+
+    # PUT lê o usuário (findById, findByEmail) e depois grava, tudo na mesma requisição
+    status=$(call PUT "/api/users/$USER_ID" \
+        "$(jq -n --arg e "$EMAIL" --arg p "$PASSWORD" --arg n "Replica Smoke PUT $i" '{name: $n, email: $e, password: $p, role: "USER"}')")
+    [ "$status" = "200" ] || fail "rodada $i: PUT respondeu $status ($(cat "$BODY_FILE"))"
+
+    # leitura logo depois da escrita: fixada no primário, já enxerga o PUT
+    status=$(call GET "/api/users/$USER_ID")
+    [ "$status" = "200" ] || fail "rodada $i: GET após PUT respondeu $status"
+    name=$(jq -r .name "$BODY_FILE")
+    [ "$name" = "Replica Smoke PUT $i" ] || fail "rodada $i: GET após PUT leu \"$name\""
+done
+
+status=$(call DELETE "/api/users/$USER_ID")
+[ "$status" = "204" ] || fail "DELETE respondeu $status"
+
+echo "OK: $ROUNDS rodadas de leitura seguida de escrita"
@@ -0,0 +1,73 @@
+package processofit.infra.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import processofit.model.user.User;
+import processofit.model.user.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Geração e validação de tokens, com e sem acerto no cache de tokens verificados
+ */
+@State(Scope.Benchmark)
+public class TokenServiceBenchmark {
+
+    private static final int DISTINCT_TOKENS = 4096;
+
+    private TokenService tokenService;
+    private TokenService uncachedTokenService;
+    private User user;
+    private String token;
+    private String[] rotatingTokens;
+    private int next;
+
+    @Setup
+    public void setup() {
+        tokenService = newTokenService(10_000);
+        // Cache bem menor que o conjunto de tokens: quase toda validação verifica o HMAC
+        uncachedTokenService = newTokenService(16);
+
+        user = user(1L);
+        token = tokenService.generateToken(user);
+        tokenService.validateToken(token);
+
+        rotatingTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            rotatingTokens[i] = uncachedTokenService.generateToken(user(i + 1L));
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String validateCachedToken() {
+        return tokenService.validateToken(token);
+    }
+
+    @Benchmark
+    public String validateUncachedToken() {
+        next = (next + 1) % DISTINCT_TOKENS;
+        return uncachedTokenService.validateToken(rotatingTokens[next]);
+    }
+
+    private static TokenService newTokenService(long cacheMaxSize) {
+        TokenService service = new TokenService();
+        ReflectionTestUtils.setField(service, "secret", "benchmark-secret");
+        ReflectionTestUtils.setField(service, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+
+    private static User user(Long id) {
+        User user = new User("Benchmark", "bench" + id + "@processofit.local", "hash", UserRole.USER);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,35 @@
+package processofit.model.user;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authorities do usuário, consultadas a cada autenticação e checagem de role
+ */
+@State(Scope.Benchmark)
+public class UserBenchmark {
+
+    private User admin;
+    private User user;
+
+    @Setup
+    public void setup() {
+        admin = new User("Admin", "admin@processofit.local", "hash", UserRole.ADMIN);
+        user = new User("User", "user@processofit.local", "hash", UserRole.USER);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> adminAuthorities() {
+        return admin.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userAuthorities() {
+        return user.getAuthorities();
+    }
+}
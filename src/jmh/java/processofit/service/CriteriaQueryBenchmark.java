@@ -0,0 +1,95 @@
+package processofit.service;
+
+import processofit.ProcessoFitApplication;
+import processofit.model.user.User;
+import processofit.model.user.UserRole;
+import processofit.model.user.dto.UserSummaryDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leituras do GenericCrudService/UserService chamadas pelo próprio serviço, com as consultas
+ * nomeadas registradas na inicialização, o cache de segundo nível e as métricas do execute()
+ * O banco é H2 em memória (perfil benchmark), então os números medem o lado da aplicação
+ */
+@State(Scope.Benchmark)
+public class CriteriaQueryBenchmark {
+
+    private static final int PAGE = 100;
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"10000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private String existingEmail;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ProcessoFitApplication.class)
+                .profiles("benchmark")
+                .run();
+        userService = context.getBean(UserService.class);
+
+        // Hash fixo: o custo do BCrypt fica fora da carga inicial
+        List<User> seed = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            seed.add(new User("Usuário " + i, "user" + i + "@processofit.com", "{noop}senha", UserRole.USER));
+        }
+        userService.saveAll(seed);
+        existingEmail = "user" + (users / 2) + "@processofit.com";
+        cursor = userService.findAllAfter("id", null, PAGE_SIZE).nextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> findAllPaged() {
+        return userService.findAll(PAGE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UserSummaryDTO> findAllProjectedPaged() {
+        return userService.findAll(UserSummaryDTO.class, PAGE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public KeysetPage<UserSummaryDTO> findAllAfterCursor() {
+        return userService.findAllAfter(UserSummaryDTO.class, "id", cursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long countExact() {
+        return userService.count(CountMode.EXACT);
+    }
+
+    @Benchmark
+    public long countCached() {
+        return userService.count(CountMode.CACHED);
+    }
+
+    @Benchmark
+    public User findByEmail() {
+        return userService.findByEmail(existingEmail);
+    }
+
+    @Benchmark
+    public boolean existsByAbsentEmail() {
+        return userService.existsByEmail("ausente@processofit.com");
+    }
+}
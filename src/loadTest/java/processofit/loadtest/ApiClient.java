@@ -0,0 +1,90 @@
+package processofit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Cliente HTTP mínimo da API, usado pelos benchmarks e testes de carga
+ */
+final class ApiClient {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper json = new ObjectMapper();
+    private final URI baseUri;
+
+    ApiClient(int port) {
+        this.baseUri = URI.create("http://localhost:" + port);
+    }
+
+    /**
+     * Cadastra um usuário e devolve o ID gerado
+     */
+    long register(String name, String email, String password, String role) throws IOException, InterruptedException {
+        HttpResponse<String> response = sendJson("POST", "/auth/register", null,
+                Map.of("name", name, "email", email, "password", password, "role", role));
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Cadastro falhou com status " + response.statusCode());
+        }
+        return json.readTree(response.body()).get("id").asLong();
+    }
+
+    /**
+     * Faz login e devolve o token JWT
+     */
+    String login(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = sendJson("POST", "/auth/login", null,
+                Map.of("email", email, "password", password));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login falhou com status " + response.statusCode());
+        }
+        return json.readTree(response.body()).get("token").asText();
+    }
+
+    /**
+     * Lê o ID do usuário da claim uid do token, sem chamar a API
+     */
+    long userIdOf(String token) throws IOException {
+        String payload = token.split("\\.")[1];
+        return json.readTree(Base64.getUrlDecoder().decode(payload)).get("uid").asLong();
+    }
+
+    HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+        return send(request(path, token).GET());
+    }
+
+    HttpResponse<String> sendJson(String method, String path, String token, Object body) throws IOException, InterruptedException {
+        return send(request(path, token)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body))));
+    }
+
+    HttpResponse<String> sendText(String method, String path, String token, String body) throws IOException, InterruptedException {
+        return send(request(path, token)
+                .header("Content-Type", "text/plain")
+                .method(method, HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,63 @@
+package processofit.loadtest;
+
+import processofit.ProcessoFitApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compara vazão e latência p99 da API com threads de plataforma e com virtual threads
+ *
+ * Sobe a aplicação duas vezes no mesmo processo (uma por modo), contra o banco de
+ * application.properties (docker-compose up), e mede GET /api/users/{id}, que bloqueia no JDBC.
+ *
+ * Executar com: ./gradlew benchmarkExecutionModes
+ * Parâmetros: -Dbenchmark.concurrency=400 -Dbenchmark.warmup-seconds=5
+ * -Dbenchmark.duration-seconds=20 -Dbenchmark.pool-size=50
+ */
+public class ExecutionModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("benchmark.concurrency", 400);
+        int poolSize = Integer.getInteger("benchmark.pool-size", 50);
+        Duration warmup = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("benchmark.duration-seconds", 20));
+
+        List<LoadResult> results = new ArrayList<>();
+        results.add(run(false, concurrency, poolSize, warmup, duration));
+        results.add(run(true, concurrency, poolSize, warmup, duration));
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "modo", "req/s", "p50 (ms)", "p95 (ms)", "p99 (ms)", "erros");
+        for (LoadResult result : results) {
+            System.out.printf("%-10s %12.1f %10.2f %10.2f %10.2f %8d%n", result.scenario(), result.throughput(),
+                    result.p50Ms(), result.p95Ms(), result.p99Ms(), result.errors());
+        }
+    }
+
+    private static LoadResult run(boolean virtualThreads, int concurrency, int poolSize,
+                                  Duration warmup, Duration duration) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(ProcessoFitApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize)
+                .run()) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            ApiClient client = new ApiClient(port);
+
+            String email = "bench-" + UUID.randomUUID() + "@processofit.local";
+            long id = client.register("Benchmark", email, "benchmark", "USER");
+            String token = client.login(email, "benchmark");
+            String path = "/api/users/" + id;
+
+            String mode = virtualThreads ? "virtual" : "platform";
+            return LoadDriver.run(mode, concurrency, warmup, duration,
+                    () -> client.get(path, token).statusCode() == 200);
+        }
+    }
+}
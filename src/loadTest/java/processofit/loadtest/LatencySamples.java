@@ -0,0 +1,27 @@
+package processofit.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latências (em nanossegundos) registradas por um único worker, sem sincronização
+ */
+final class LatencySamples {
+
+    private long[] values = new long[1024];
+    private int size;
+
+    void add(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void copyTo(long[] target, int offset) {
+        System.arraycopy(values, 0, target, offset, size);
+    }
+}
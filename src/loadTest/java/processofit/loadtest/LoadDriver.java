@@ -0,0 +1,102 @@
+package processofit.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispara operações em laço fechado com N clientes concorrentes
+ * Cada cliente roda em uma virtual thread, então o lado do cliente não limita a concorrência
+ */
+final class LoadDriver {
+
+    @FunctionalInterface
+    interface Operation {
+        /**
+         * @return true se a resposta foi a esperada
+         */
+        boolean execute() throws Exception;
+    }
+
+    private LoadDriver() {
+    }
+
+    /**
+     * Operação com peso relativo dentro de uma carga mista
+     */
+    record WeightedOperation(String scenario, int weight, Operation operation) {
+    }
+
+    /**
+     * Executa a operação durante o aquecimento e a medição; só a medição entra no resultado
+     */
+    static LoadResult run(String scenario, int concurrency, Duration warmup, Duration duration, Operation operation) {
+        return runMix(concurrency, warmup, duration, List.of(new WeightedOperation(scenario, 1, operation))).get(0);
+    }
+
+    /**
+     * Executa uma carga mista: a cada iteração o cliente sorteia uma operação pelo peso
+     * @return Um resultado por operação, na ordem recebida
+     */
+    static List<LoadResult> runMix(int concurrency, Duration warmup, Duration duration, List<WeightedOperation> mix) {
+        int totalWeight = mix.stream().mapToInt(WeightedOperation::weight).sum();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        List<List<LatencySamples>> samples = new ArrayList<>(mix.size());
+        List<AtomicLong> errors = new ArrayList<>(mix.size());
+        for (int i = 0; i < mix.size(); i++) {
+            samples.add(new ArrayList<>(concurrency));
+            errors.add(new AtomicLong());
+        }
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                LatencySamples[] workerSamples = new LatencySamples[mix.size()];
+                for (int op = 0; op < mix.size(); op++) {
+                    workerSamples[op] = new LatencySamples();
+                    samples.get(op).add(workerSamples[op]);
+                }
+                clients.submit(() -> {
+                    long startedAt;
+                    while ((startedAt = System.nanoTime()) < deadline) {
+                        int op = pick(mix, totalWeight);
+                        boolean ok;
+                        try {
+                            ok = mix.get(op).operation().execute();
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (startedAt >= measureFrom) {
+                            workerSamples[op].add(System.nanoTime() - startedAt);
+                            if (!ok) {
+                                errors.get(op).incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+
+        List<LoadResult> results = new ArrayList<>(mix.size());
+        for (int op = 0; op < mix.size(); op++) {
+            results.add(LoadResult.of(mix.get(op).scenario(), samples.get(op), errors.get(op).get(), duration));
+        }
+        return results;
+    }
+
+    private static int pick(List<WeightedOperation> mix, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int op = 0; op < mix.size(); op++) {
+            roll -= mix.get(op).weight();
+            if (roll < 0) {
+                return op;
+            }
+        }
+        return mix.size() - 1;
+    }
+}
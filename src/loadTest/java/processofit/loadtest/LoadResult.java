@@ -0,0 +1,36 @@
+package processofit.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resultado agregado de um cenário de carga
+ * Latências em milissegundos, vazão em requisições por segundo
+ */
+record LoadResult(String scenario, long requests, long errors, double throughput,
+                  double p50Ms, double p95Ms, double p99Ms) {
+
+    static LoadResult of(String scenario, List<LatencySamples> samples, long errors, Duration duration) {
+        int total = samples.stream().mapToInt(LatencySamples::size).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (LatencySamples worker : samples) {
+            worker.copyTo(latencies, offset);
+            offset += worker.size();
+        }
+        Arrays.sort(latencies);
+
+        double seconds = duration.toNanos() / 1e9;
+        return new LoadResult(scenario, total, errors, total / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,160 @@
+package processofit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import processofit.ProcessoFitApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de carga de ponta a ponta dos endpoints de autenticação e usuários
+ *
+ * Sobe a aplicação contra um H2 em modo PostgreSQL (ou contra o PostgreSQL do
+ * docker-compose com -Dloadtest.database=postgres), cadastra N usuários e executa
+ * uma carga mista de logins, leituras autenticadas e PATCH de nome.
+ * Vazão, p50/p95/p99 e erros por cenário são gravados em JSON.
+ *
+ * Executar com: ./gradlew loadTest
+ * Parâmetros: -Dloadtest.users=1000 -Dloadtest.concurrency=100 -Dloadtest.warmup-seconds=10
+ * -Dloadtest.duration-seconds=60 -Dloadtest.sessions=200 -Dloadtest.output=arquivo.json
+ */
+public class LoadTestRunner {
+
+    private static final String PASSWORD = "loadtest";
+    private static final int SEED_BATCH = 200;
+
+    private record Session(long id, String email, String token) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("loadtest.users", 1000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 100);
+        int sessionCount = Math.min(users, Integer.getInteger("loadtest.sessions", 200));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 60));
+        String database = System.getProperty("loadtest.database", "h2");
+        File output = new File(System.getProperty("loadtest.output", "build/load-test/results.json"));
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ProcessoFitApplication.class)
+                .properties("server.port=0");
+        if ("h2".equals(database)) {
+            builder.profiles("loadtest");
+        }
+
+        Instant startedAt = Instant.now();
+        List<LoadResult> results;
+        try (ConfigurableApplicationContext app = builder.run()) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            ApiClient client = new ApiClient(port);
+
+            String runId = UUID.randomUUID().toString().substring(0, 8);
+            String adminEmail = "admin-" + runId + "@loadtest.local";
+            client.register("Admin", adminEmail, PASSWORD, "ADMIN");
+            String adminToken = client.login(adminEmail, PASSWORD);
+
+            seed(client, adminToken, runId, users);
+            List<Session> sessions = openSessions(client, runId, sessionCount);
+
+            List<LoadDriver.WeightedOperation> mix = List.of(
+                    new LoadDriver.WeightedOperation("login", 10, () -> {
+                        Session session = randomSession(sessions);
+                        return client.sendJson("POST", "/auth/login", null,
+                                Map.of("email", session.email(), "password", PASSWORD)).statusCode() == 200;
+                    }),
+                    new LoadDriver.WeightedOperation("read-user", 70, () -> {
+                        Session session = randomSession(sessions);
+                        return client.get("/api/users/" + session.id(), session.token()).statusCode() == 200;
+                    }),
+                    new LoadDriver.WeightedOperation("patch-name", 20, () -> {
+                        Session session = randomSession(sessions);
+                        HttpResponse<String> response = client.sendText("PATCH", "/api/users/" + session.id() + "/nome",
+                                session.token(), "Usuario " + ThreadLocalRandom.current().nextInt(1_000_000));
+                        return response.statusCode() / 100 == 2;
+                    }));
+            results = LoadDriver.runMix(concurrency, warmup, duration, mix);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("database", database);
+        report.put("users", users);
+        report.put("sessions", sessionCount);
+        report.put("concurrency", concurrency);
+        report.put("warmupSeconds", warmup.toSeconds());
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("scenarios", results);
+
+        output.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, report);
+
+        System.out.printf("%n%-12s %10s %8s %10s %10s %10s %10s%n",
+                "cenário", "requests", "erros", "req/s", "p50 (ms)", "p95 (ms)", "p99 (ms)");
+        for (LoadResult result : results) {
+            System.out.printf("%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", result.scenario(), result.requests(),
+                    result.errors(), result.throughput(), result.p50Ms(), result.p95Ms(), result.p99Ms());
+        }
+        System.out.println("Resultado gravado em " + output.getAbsolutePath());
+    }
+
+    /**
+     * Cadastra os usuários pelo import em lote, com lotes em paralelo para distribuir o hashing
+     */
+    private static void seed(ApiClient client, String adminToken, String runId, int users) throws Exception {
+        List<Future<Integer>> batches = new ArrayList<>();
+        try (ExecutorService seeders = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+            for (int start = 0; start < users; start += SEED_BATCH) {
+                int from = start;
+                int to = Math.min(users, start + SEED_BATCH);
+                batches.add(seeders.submit(() -> {
+                    List<Map<String, String>> batch = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        batch.add(Map.of("name", "Usuario " + i, "email", email(runId, i),
+                                "password", PASSWORD, "role", "USER"));
+                    }
+                    return client.sendJson("POST", "/api/users/importar", adminToken, batch).statusCode();
+                }));
+            }
+        }
+        for (Future<Integer> batch : batches) {
+            if (batch.get() != 200) {
+                throw new IllegalStateException("Falha ao cadastrar usuários: status " + batch.get());
+            }
+        }
+    }
+
+    /**
+     * Faz login de parte dos usuários cadastrados, para as leituras e atualizações autenticadas
+     */
+    private static List<Session> openSessions(ApiClient client, String runId, int count) throws Exception {
+        List<Session> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = email(runId, i);
+            String token = client.login(email, PASSWORD);
+            sessions.add(new Session(client.userIdOf(token), email, token));
+        }
+        return sessions;
+    }
+
+    private static Session randomSession(List<Session> sessions) {
+        return sessions.get(ThreadLocalRandom.current().nextInt(sessions.size()));
+    }
+
+    private static String email(String runId, int index) {
+        return "user-" + runId + "-" + index + "@loadtest.local";
+    }
+}
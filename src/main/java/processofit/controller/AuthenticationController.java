@@ -1,12 +1,16 @@
 package processofit.controller;
 
+import processofit.infra.security.PasswordHashingRejectedException;
 import processofit.infra.security.TokenService;
 import processofit.model.user.User;
 import processofit.model.user.dto.AuthenticationDTO;
 import processofit.model.user.dto.LoginResponseDTO;
 import processofit.model.user.dto.RegisterDTO;
-import processofit.repositories.UserRepository;
+import processofit.service.UserService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -29,7 +33,7 @@ public class AuthenticationController {
     private AuthenticationManager authenticationManager;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -40,7 +44,16 @@ public class AuthenticationController {
     public ResponseEntity login(@RequestBody @Validated AuthenticationDTO authenticationDTO) {
 
         UsernamePasswordAuthenticationToken usernamePassword = new UsernamePasswordAuthenticationToken(authenticationDTO.email(), authenticationDTO.password());
-        Authentication auth = this.authenticationManager.authenticate(usernamePassword);
+        Authentication auth;
+        try {
+            auth = this.authenticationManager.authenticate(usernamePassword);
+        } catch (RuntimeException e) {
+            // O provider do Spring Security pode embrulhar a rejeição do pool de hashing
+            if (PasswordHashingRejectedException.isCauseOf(e)) {
+                return hashingUnavailable();
+            }
+            throw e;
+        }
 
         String token = tokenService.generateToken((User) auth.getPrincipal());
 
@@ -49,14 +62,27 @@ public class AuthenticationController {
 
     @PostMapping("/register")
     public ResponseEntity register(@RequestBody @Validated RegisterDTO registerDTO) {
-        if(this.userRepository.findByEmail(registerDTO.email()) != null) {
+        if(this.userService.existsByEmail(registerDTO.email())) {
             return ResponseEntity.badRequest().build();
         }
 
-        String encryptedPassword = passwordEncoder.encode(registerDTO.password());
+        String encryptedPassword;
+        try {
+            encryptedPassword = passwordEncoder.encode(registerDTO.password());
+        } catch (PasswordHashingRejectedException e) {
+            return hashingUnavailable();
+        }
         User newUser = new User(registerDTO.name(), registerDTO.email(), encryptedPassword, registerDTO.role());
 
-        this.userRepository.save(newUser);
+        try {
+            this.userService.save(newUser);
+        } catch (RuntimeException e) {
+            // Cadastro concorrente com o mesmo email: a constraint única decide
+            if (isConstraintViolation(e)) {
+                return ResponseEntity.badRequest().build();
+            }
+            throw e;
+        }
 
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
@@ -66,4 +92,19 @@ public class AuthenticationController {
 
         return ResponseEntity.created(location).body(newUser);
     }
+
+    private static boolean isConstraintViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity hashingUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
@@ -1,83 +1,178 @@
 package processofit.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.servlet.http.HttpServletResponse;
+import processofit.infra.security.PasswordHashingRejectedException;
+import processofit.infra.security.ThrottledPasswordEncoder;
 import processofit.model.user.User;
+import processofit.model.user.dto.ImportFailureDTO;
+import processofit.model.user.dto.ImportResultDTO;
+import processofit.model.user.dto.RegisterDTO;
+import processofit.model.user.dto.UserSummaryDTO;
+import processofit.service.CountMode;
+import processofit.service.KeysetPage;
 import processofit.service.UserService;
+import org.hibernate.StaleStateException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class UserController {
 
+    /**
+     * Atributos aceitos na paginação por cursor: obrigatórios e indexados
+     */
+    private static final Set<String> CURSOR_SORT_KEYS = Set.of("id", "email");
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Tamanho máximo das páginas de /paginado; valores maiores são reduzidos
+     */
+    private static final int PAGE_MAX_SIZE = 100;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ThrottledPasswordEncoder passwordEncoder;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> listarTodos() {
-        List<User> users = userService.findAll();
+    public ResponseEntity<List<UserSummaryDTO>> listarTodos() {
+        List<UserSummaryDTO> users = userService.findAll(UserSummaryDTO.class);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/busca")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<UserSummaryDTO>> buscarPorNome(
+            @RequestParam String nome,
+            @RequestParam(defaultValue = "20") int limite) {
+        if (nome.isBlank() || limite <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<UserSummaryDTO> users = userService.searchByName(nome, limite).stream()
+                .map(UserSummaryDTO::from)
+                .toList();
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportar(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        // Um usuário por linha, escrito direto na resposta conforme o cursor avança
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            userService.streamAll(UserSummaryDTO.class, EXPORT_FETCH_SIZE, user -> {
+                try {
+                    writer.write(user);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @userService.findByEmail(authentication.name).id == #id")
-    public ResponseEntity<User> buscarPorId(@PathVariable Long id) {
-        Optional<User> user = userService.findById(id);
-        return user.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    @PreAuthorize("@userAuthorization.isSelfOrAdmin(authentication, #id)")
+    public ResponseEntity<UserSummaryDTO> buscarPorId(@PathVariable Long id, WebRequest request) {
+        // Uma linha: vem do cache de segundo nível e só o resumo é serializado
+        Optional<UserSummaryDTO> user = userService.findById(id).map(UserSummaryDTO::from);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // If-None-Match com a versão atual: 304 sem corpo
+        String etag = etag(user.get().version());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(user.get());
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @userService.findByEmail(authentication.name).id == #id")
-    public ResponseEntity<User> atualizarUsuario(@PathVariable Long id, @RequestBody User user) {
+    @PreAuthorize("@userAuthorization.isSelfOrAdmin(authentication, #id)")
+    public ResponseEntity<User> atualizarUsuario(@PathVariable Long id, @RequestBody User user,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            if (!userService.existsById(id)) {
+            Optional<User> current = userService.findById(id);
+            if (current.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
-            User existingUser = userService.findByEmail(user.getEmail());
-            if (existingUser != null && !existingUser.getId().equals(id)) {
+            // O filtro de emails dispensa a consulta quando o email nunca foi cadastrado
+            if (userService.isEmailInUseByOther(user.getEmail(), id)) {
                 return ResponseEntity.badRequest().build();
             }
 
+            // Com If-Match o merge falha se a versão mudou; sem ele a escrita segue incondicional
+            Long expectedVersion = expectedVersion(ifMatch);
             user.setId(id);
+            user.setVersion(expectedVersion != null ? expectedVersion : current.get().getVersion());
             User userAtualizado = userService.update(user);
-            return ResponseEntity.ok(userAtualizado);
+            return ResponseEntity.ok().eTag(etag(userAtualizado.getVersion())).body(userAtualizado);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return writeFailed(e);
         }
     }
 
     @PatchMapping("/{id}/nome")
-    @PreAuthorize("hasRole('ADMIN') or @userService.findByEmail(authentication.name).id == #id")
-    public ResponseEntity<User> atualizarNome(@PathVariable Long id, @RequestBody String novoNome) {
+    @PreAuthorize("@userAuthorization.isSelfOrAdmin(authentication, #id)")
+    public ResponseEntity<User> atualizarNome(@PathVariable Long id, @RequestBody String novoNome,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            User userAtualizado = userService.updateUserName(id, novoNome);
-            return ResponseEntity.ok(userAtualizado);
+            User userAtualizado = userService.updateUserName(id, novoNome, expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(etag(userAtualizado.getVersion())).body(userAtualizado);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return writeFailed(e);
         }
     }
 
     @PatchMapping("/{id}/email")
-    @PreAuthorize("hasRole('ADMIN') or @userService.findByEmail(authentication.name).id == #id")
-    public ResponseEntity<User> atualizarEmail(@PathVariable Long id, @RequestBody String novoEmail) {
+    @PreAuthorize("@userAuthorization.isSelfOrAdmin(authentication, #id)")
+    public ResponseEntity<User> atualizarEmail(@PathVariable Long id, @RequestBody String novoEmail,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            User userAtualizado = userService.updateUserEmail(id, novoEmail);
-            return ResponseEntity.ok(userAtualizado);
+            User userAtualizado = userService.updateUserEmail(id, novoEmail, expectedVersion(ifMatch));
+            return ResponseEntity.ok().eTag(etag(userAtualizado.getVersion())).body(userAtualizado);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return writeFailed(e);
         }
     }
 
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @userService.findByEmail(authentication.name).id == #id")
+    @PreAuthorize("@userAuthorization.isSelfOrAdmin(authentication, #id)")
     public ResponseEntity<Void> deletarUsuario(@PathVariable Long id) {
         try {
             if (userService.deleteById(id)) {
@@ -91,17 +186,135 @@ public class UserController {
 
     @GetMapping("/paginado")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> listarPaginado(
+    public ResponseEntity<List<UserSummaryDTO>> listarPaginado(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        List<User> users = userService.findAll(page, size);
+        if (page < 0 || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<UserSummaryDTO> users = userService.findAll(UserSummaryDTO.class, page, Math.min(size, PAGE_MAX_SIZE));
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(value = "/paginado", params = "sort")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<KeysetPage<UserSummaryDTO>> listarPorCursor(
+            @RequestParam String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        if (!CURSOR_SORT_KEYS.contains(sort) || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            KeysetPage<UserSummaryDTO> page = userService.findAllAfter(UserSummaryDTO.class, sort, cursor,
+                    Math.min(size, PAGE_MAX_SIZE));
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/importar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportResultDTO> importarUsuarios(@RequestBody List<RegisterDTO> registros) {
+        // Registros inválidos ou com email repetido são recusados individualmente, sem barrar os demais
+        List<ImportFailureDTO> falhas = new ArrayList<>();
+        List<RegisterDTO> validos = new ArrayList<>(registros.size());
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < registros.size(); i++) {
+            RegisterDTO registro = registros.get(i);
+            String motivo = motivoRecusa(registro, emails);
+            if (motivo != null) {
+                falhas.add(new ImportFailureDTO(i, registro == null ? null : registro.email(), motivo));
+            } else {
+                validos.add(registro);
+            }
+        }
+
+        try {
+            // Hashes em paralelo no pool de hashing, sem ocupar a fila dos logins
+            List<String> senhas = passwordEncoder.encodeAll(validos.stream().map(RegisterDTO::password).toList());
+            List<User> users = new ArrayList<>(validos.size());
+            for (int i = 0; i < validos.size(); i++) {
+                RegisterDTO registro = validos.get(i);
+                users.add(new User(registro.name(), registro.email(), senhas.get(i), registro.role()));
+            }
+
+            int importados = userService.saveAll(users).size();
+            return ResponseEntity.ok(new ImportResultDTO(importados, falhas));
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/count")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Long> contarUsuarios() {
-        long count = userService.count();
+    public ResponseEntity<Long> contarUsuarios(@RequestParam(defaultValue = "EXACT") CountMode mode) {
+        long count = userService.count(mode);
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    /**
+     * Motivo para recusar um registro da importação, ou null se ele pode ser importado
+     */
+    private String motivoRecusa(RegisterDTO registro, Set<String> emails) {
+        if (registro == null || isBlank(registro.name()) || isBlank(registro.email())
+                || isBlank(registro.password()) || registro.role() == null) {
+            return "Campos obrigatórios ausentes";
+        }
+        if (!emails.add(registro.email())) {
+            return "Email repetido na importação";
+        }
+        if (userService.existsByEmail(registro.email())) {
+            return "Email já cadastrado";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versão esperada a partir do If-Match
+     * @param ifMatch Valor do header
+     * @return Versão, null se o header estiver ausente ou for "*",
+     * e -1 (nunca corresponde) se não for uma ETag de versão
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.valueOf(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * 412 quando outra requisição alterou o usuário antes (lock otimista), 400 nos demais casos
+     */
+    private static <T> ResponseEntity<T> writeFailed(Exception error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException
+                    || cause instanceof OptimisticLockingFailureException
+                    || cause instanceof StaleStateException) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -0,0 +1,127 @@
+package processofit.controller;
+
+import processofit.model.user.User;
+import processofit.model.workout.Exercise;
+import processofit.model.workout.RollupPeriod;
+import processofit.model.workout.dto.ExerciseDTO;
+import processofit.model.workout.dto.PersonalRecordDTO;
+import processofit.model.workout.dto.ProgressRollupDTO;
+import processofit.model.workout.dto.WorkoutSetDTO;
+import processofit.service.ExerciseService;
+import processofit.service.PersonalRecordService;
+import processofit.service.ProgressRollupRebuild;
+import processofit.service.ProgressRollupService;
+import processofit.service.WorkoutIngestionRejectedException;
+import processofit.service.WorkoutSetIngestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/workouts")
+@CrossOrigin(origins = "*")
+public class WorkoutController {
+
+    /**
+     * Períodos devolvidos pela evolução quando o início não é informado
+     */
+    private static final int DEFAULT_PROGRESS_PERIODS = 12;
+
+    @Autowired
+    private WorkoutSetIngestion ingestion;
+
+    @Autowired
+    private ExerciseService exerciseService;
+
+    @Autowired
+    private ProgressRollupService rollupService;
+
+    @Autowired
+    private PersonalRecordService recordService;
+
+    @Autowired
+    private ProgressRollupRebuild rollupRebuild;
+
+    /**
+     * Recebe séries do usuário autenticado e responde assim que estão na fila
+     * A gravação acontece em lotes, em segundo plano; com a fila cheia responde 503 com Retry-After
+     */
+    @PostMapping("/sets")
+    public ResponseEntity<Integer> registrarSeries(@AuthenticationPrincipal User user,
+                                                   @RequestBody List<WorkoutSetDTO> series) {
+        try {
+            int aceitas = ingestion.submit(user.getId(), series);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(aceitas);
+        } catch (WorkoutIngestionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/exercises")
+    public ResponseEntity<List<ExerciseDTO>> listarExercicios() {
+        return ResponseEntity.ok(exerciseService.findAll(ExerciseDTO.class));
+    }
+
+    @PostMapping("/exercises")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ExerciseDTO> criarExercicio(@RequestBody ExerciseDTO exercicio) {
+        if (exercicio.name() == null || exercicio.name().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Exercise saved = exerciseService.saveAndFlush(new Exercise(exercicio.name(), exercicio.muscleGroup()));
+            return ResponseEntity.ok(ExerciseDTO.from(saved));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Evolução de um exercício do usuário autenticado, um agregado por período
+     * Lê só as linhas dos períodos pedidos, sem percorrer o histórico de séries
+     */
+    @GetMapping("/progress")
+    public ResponseEntity<List<ProgressRollupDTO>> evolucao(
+            @AuthenticationPrincipal User user,
+            @RequestParam Long exerciseId,
+            @RequestParam(defaultValue = "WEEK") RollupPeriod period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate fim = to != null ? to : LocalDate.now();
+        LocalDate inicio = from != null ? from : period.minus(period.start(fim), DEFAULT_PROGRESS_PERIODS - 1);
+        if (inicio.isAfter(fim)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(rollupService.findProgress(user.getId(), exerciseId, period, inicio, fim));
+    }
+
+    @GetMapping("/records")
+    public ResponseEntity<List<PersonalRecordDTO>> recordes(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(recordService.findSummaryByUser(user.getId()));
+    }
+
+    /**
+     * Recalcula em segundo plano os agregados de evolução de todos os usuários
+     * Responde 409 se já houver um recálculo em andamento
+     */
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> recalcularEvolucao() {
+        if (!rollupRebuild.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,34 @@
+package processofit.infra.persistence;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Envolve o DataSource em um proxy que mede cada statement executado
+ * Substitui o show-sql: nada é impresso, apenas os statements lentos são logados
+ */
+@Component
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryListener> slowQueryListener;
+
+    public DataSourceProxyPostProcessor(ObjectProvider<SlowQueryListener> slowQueryListener) {
+        this.slowQueryListener = slowQueryListener;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(slowQueryListener.getObject())
+                    .build();
+        }
+        return bean;
+    }
+}
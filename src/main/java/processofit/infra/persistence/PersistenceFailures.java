@@ -0,0 +1,87 @@
+package processofit.infra.persistence;
+
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.persistence.QueryTimeoutException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.hibernate.exception.JDBCConnectionException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+
+/**
+ * Classifica falhas de persistência pela cadeia de causas
+ * Separa o que passa sozinho (conexão, failover, timeout, lock) do que o banco recusou
+ * por causa dos dados, que não adianta tentar de novo
+ */
+public final class PersistenceFailures {
+
+    private PersistenceFailures() {
+    }
+
+    /**
+     * @param error Falha (embrulhada ou não)
+     * @return true se a falha é de conexão, recurso ou concorrência e a mesma escrita pode dar certo depois
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof JDBCConnectionException
+                    || cause instanceof LockAcquisitionException
+                    || cause instanceof LockTimeoutException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof QueryTimeoutException
+                    // Inclui o timeout do Hikari esperando conexão (SQLTransientConnectionException)
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && isTransientState(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param error Falha (embrulhada ou não)
+     * @return true se o banco recusou os dados (constraint, FK, valor inválido)
+     */
+    public static boolean isRejectedData(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException
+                    || cause instanceof ConstraintViolationException
+                    || cause instanceof DataException
+                    || cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            // Classes 22 (dado inválido) e 23 (violação de integridade) do SQLSTATE
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 08: conexão; 40: rollback por serialização/deadlock; 53: recursos; 57P: servidor desligando;
+     * 55P03: lock indisponível
+     */
+    private static boolean isTransientState(String state) {
+        return state != null && (state.startsWith("08") || state.startsWith("40") || state.startsWith("53")
+                || state.startsWith("57P") || state.equals("55P03"));
+    }
+}
@@ -0,0 +1,103 @@
+package processofit.infra.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSource com roteamento para réplicas de leitura
+ * Só é ativado quando app.datasource.replica.urls está definido; sem réplicas
+ * o DataSource padrão do Spring Boot continua sendo usado
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.urls")
+public class ReadReplicaConfiguration {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Value("${app.datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.connection-timeout:PT2S}")
+    private Duration replicaConnectionTimeout;
+
+    @Autowired
+    private DataSourceProperties properties;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaPools replicaPools() {
+        HikariDataSource primary = pool("primary", properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword());
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = pool("replica-" + i, replicaUrls.get(i), replicaUsername, replicaPassword);
+            // Uma réplica fora do ar não pode impedir a subida nem segurar a requisição por 30s
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaPools(primary, replicas, replicaConnectionTimeout);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaPools replicaPools, ReadYourWrites readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(replicaPools, readYourWrites));
+    }
+
+    /**
+     * A Session só segura a conexão durante a transação: mesmo com open-in-view ligado,
+     * uma escrita depois de uma leitura na mesma requisição pega uma conexão nova (do primário)
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,53 @@
+package processofit.infra.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Envia transações @Transactional(readOnly = true) para uma réplica saudável e o restante para o primário
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy, para que a conexão só seja obtida
+ * depois que a transação já declarou se é somente leitura
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final ReplicaPools pools;
+    private final ReadYourWrites readYourWrites;
+
+    public ReadReplicaRoutingDataSource(ReplicaPools pools, ReadYourWrites readYourWrites) {
+        this.pools = pools;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.pinAfterCommit();
+            return pools.primary().getConnection();
+        }
+        if (readYourWrites.isPinned()) {
+            return pools.primary().getConnection();
+        }
+
+        int replica = pools.nextHealthyReplica();
+        if (replica >= 0) {
+            try {
+                return pools.replica(replica).getConnection();
+            } catch (SQLException | RuntimeException e) {
+                // Failover: a réplica sai da rotação e a leitura segue no primário
+                log.warn("Réplica {} indisponível, usando o primário: {}", replica, e.getMessage());
+                pools.markDown(replica);
+            }
+        }
+        return pools.primary().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Credenciais são definidas por pool");
+    }
+}
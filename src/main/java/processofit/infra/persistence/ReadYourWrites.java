@@ -0,0 +1,85 @@
+package processofit.infra.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import processofit.infra.security.TokenClaims;
+import processofit.model.user.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Fixa as leituras no primário logo após uma escrita, para não ler da réplica um estado atrasado
+ * Vale para o restante da requisição que escreveu e, por pin-duration, para as requisições
+ * seguintes do mesmo usuário
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final String REQUEST_ATTRIBUTE = ReadYourWrites.class.getName() + ".PINNED";
+
+    @Value("${app.datasource.replica.pin-duration:PT5S}")
+    private Duration pinDuration;
+
+    private Cache<Long, Boolean> pinnedUsers;
+
+    @PostConstruct
+    void init() {
+        this.pinnedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(pinDuration)
+                .build();
+    }
+
+    /**
+     * Fixa a requisição e o usuário correntes no primário
+     */
+    public void pin() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+        Long userId = currentUserId();
+        if (userId != null) {
+            pinnedUsers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Fixa no primário quando a transação de escrita corrente fizer commit
+     */
+    void pinAfterCommit() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            AfterCommit.run(this::pin);
+        }
+    }
+
+    /**
+     * @return true se as leituras da requisição corrente devem ir ao primário
+     */
+    public boolean isPinned() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        Long userId = currentUserId();
+        return userId != null && pinnedUsers.getIfPresent(userId) != null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getDetails() instanceof TokenClaims claims && claims.userId() != null) {
+            return claims.userId();
+        }
+        return authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+}
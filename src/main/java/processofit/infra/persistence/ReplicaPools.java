@@ -0,0 +1,87 @@
+package processofit.infra.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de conexão do primário e das réplicas de leitura, com a saúde de cada réplica
+ * Não é um DataSource, para que apenas o DataSource de roteamento seja instrumentado
+ */
+public class ReplicaPools implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final List<AtomicBoolean> healthy;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public ReplicaPools(HikariDataSource primary, List<HikariDataSource> replicas, Duration validationTimeout) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = replicas.stream().map(replica -> new AtomicBoolean(true)).toList();
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+
+    DataSource primary() {
+        return primary;
+    }
+
+    DataSource replica(int index) {
+        return replicas.get(index);
+    }
+
+    /**
+     * Próxima réplica saudável, em round-robin
+     * @return Índice da réplica, ou -1 se nenhuma estiver saudável
+     */
+    int nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            if (healthy.get(index).get()) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tira a réplica da rotação até a próxima verificação de saúde bem-sucedida
+     * @param index Índice da réplica
+     */
+    void markDown(int index) {
+        healthy.get(index).set(false);
+    }
+
+    /**
+     * Verifica cada réplica e devolve à rotação as que voltaram a responder
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval:PT5S}")
+    public void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.get(i).set(isValid(replicas.get(i)));
+        }
+    }
+
+    private boolean isValid(DataSource replica) {
+        try (Connection connection = replica.getConnection()) {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -0,0 +1,105 @@
+package processofit.infra.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Recebe o tempo de execução de cada statement SQL
+ * Loga apenas os statements acima do limite, com o chamador, e alimenta a contagem
+ * por requisição do StatementBudgetFilter
+ * Os valores dos parâmetros (hashes de senha, emails) só são logados em DEBUG
+ */
+@Slf4j
+@Component
+public class SlowQueryListener implements QueryExecutionListener {
+
+    /**
+     * Limite de conjuntos de parâmetros logados em statements em lote
+     */
+    private static final int MAX_LOGGED_PARAMETER_SETS = 5;
+
+    @Value("${app.sql.slow-threshold:200ms}")
+    private Duration slowThreshold;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private long slowThresholdMillis;
+    private Counter slowStatements;
+
+    @PostConstruct
+    void init() {
+        this.slowThresholdMillis = slowThreshold.toMillis();
+        this.slowStatements = Counter.builder("sql.statements.slow")
+                .description("Statements SQL acima de app.sql.slow-threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            StatementCounter.record(queryInfo.getQuery());
+        }
+
+        if (execInfo.getElapsedTime() < slowThresholdMillis) {
+            return;
+        }
+        slowStatements.increment();
+        for (QueryInfo queryInfo : queryInfoList) {
+            log.warn("SQL lento ({} ms{}) em {}: {}",
+                    execInfo.getElapsedTime(),
+                    execInfo.isBatch() ? ", lote de " + execInfo.getBatchSize() : "",
+                    caller(),
+                    queryInfo.getQuery());
+            if (log.isDebugEnabled()) {
+                log.debug("Parâmetros do SQL lento: {}", parameters(queryInfo));
+            }
+        }
+    }
+
+    private static String parameters(QueryInfo queryInfo) {
+        List<List<ParameterSetOperation>> parameterSets = queryInfo.getParametersList();
+        String logged = parameterSets.stream()
+                .limit(MAX_LOGGED_PARAMETER_SETS)
+                .map(operations -> operations.stream()
+                        .map(operation -> {
+                            Object[] args = operation.getArgs();
+                            return args.length > 1 ? String.valueOf(args[1]) : "";
+                        })
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(" "));
+        int omitted = parameterSets.size() - MAX_LOGGED_PARAMETER_SETS;
+        return omitted > 0 ? logged + " (+" + omitted + ")" : logged;
+    }
+
+    /**
+     * Primeiro frame da aplicação fora da camada de persistência e dos proxies
+     * Só é calculado para statements lentos
+     */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("processofit.")
+                        && !frame.getClassName().startsWith("processofit.infra.persistence.")
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("desconhecido"));
+    }
+}
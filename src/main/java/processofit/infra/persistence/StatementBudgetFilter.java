@@ -0,0 +1,67 @@
+package processofit.infra.persistence;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Conta os statements SQL de uma amostra das requisições
+ * Requisições acima do orçamento são logadas com os statements repetidos (padrão N+1)
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final int MAX_LOGGED_STATEMENTS = 3;
+
+    @Value("${app.sql.statement-budget:20}")
+    private int statementBudget;
+
+    /**
+     * Fração das requisições contadas, entre 0 e 1
+     */
+    @Value("${app.sql.request-sample-rate:0.1}")
+    private double sampleRate;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        StatementCounter counter = StatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementCounter.stop();
+            if (counter.total() > statementBudget) {
+                log.warn("{} {} executou {} statements (orçamento {}); repetidos: {}",
+                        request.getMethod(), request.getRequestURI(), counter.total(), statementBudget,
+                        repeatedStatements(counter));
+            }
+        }
+    }
+
+    private static String repeatedStatements(StatementCounter counter) {
+        return counter.statements().entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_LOGGED_STATEMENTS)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining(" | "));
+    }
+}
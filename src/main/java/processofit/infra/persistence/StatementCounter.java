@@ -0,0 +1,56 @@
+package processofit.infra.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contagem dos statements SQL executados pela thread da requisição corrente
+ * Só fica ativa nas requisições amostradas pelo StatementBudgetFilter
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<StatementCounter> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> statements = new HashMap<>();
+    private int total;
+
+    private StatementCounter() {
+    }
+
+    /**
+     * Inicia a contagem na thread corrente
+     * @return Contador ativo
+     */
+    static StatementCounter start() {
+        StatementCounter counter = new StatementCounter();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    /**
+     * Encerra a contagem na thread corrente
+     */
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Registra um statement se houver contagem ativa na thread
+     * @param sql SQL executado
+     */
+    static void record(String sql) {
+        StatementCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.total++;
+            counter.statements.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    int total() {
+        return total;
+    }
+
+    Map<String, Integer> statements() {
+        return statements;
+    }
+}
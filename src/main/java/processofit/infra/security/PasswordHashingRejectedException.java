@@ -0,0 +1,26 @@
+package processofit.infra.security;
+
+/**
+ * Lançada quando o pool de hashing de senhas está saturado
+ * A operação pode ser repetida pelo cliente após alguns instantes
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Verifica se a exceção, ou alguma de suas causas, é uma rejeição do pool de hashing
+     * @param throwable Exceção a ser inspecionada
+     * @return true se o hashing foi rejeitado
+     */
+    public static boolean isCauseOf(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof PasswordHashingRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
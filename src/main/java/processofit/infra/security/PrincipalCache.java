@@ -0,0 +1,118 @@
+package processofit.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import processofit.infra.persistence.AfterCommit;
+import processofit.model.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache em memória dos usuários autenticados, indexado por email
+ * Evita uma consulta ao banco por requisição no SecurityFilter
+ */
+@Component
+public class PrincipalCache {
+
+    private static final String CACHE_NAME = "security.principals";
+
+    @Value("${api.security.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${api.security.principal-cache.ttl:5m}")
+    private Duration ttl;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, UserDetails> principals;
+
+    /**
+     * Incrementado a cada invalidação; um carregamento concorrente
+     * só é armazenado se nenhuma invalidação ocorreu durante a consulta
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".hit.ratio", principals, cache -> cache.stats().hitRate())
+                .description("Fração das buscas de principal atendidas pelo cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca o principal no cache, carregando do banco em caso de miss
+     * O carregamento ocorre fora de qualquer lock do cache
+     * @param email Email do usuário
+     * @param loader Função que carrega o usuário do banco
+     * @return Usuário ou null se não existir
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        UserDetails cached = principals.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        UserDetails loaded = loader.apply(email);
+        if (loaded != null && generation == invalidations.get()) {
+            principals.put(email, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Remove o principal pelo email, agora e novamente após o commit
+     * @param email Email do usuário
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        invalidate(() -> principals.invalidate(email));
+    }
+
+    /**
+     * Remove o principal pelo ID do usuário, independente do email em cache
+     * @param id ID do usuário
+     */
+    public void evictUser(Long id) {
+        if (id == null) {
+            return;
+        }
+        invalidate(() -> principals.asMap().values()
+                .removeIf(principal -> principal instanceof User user && id.equals(user.getId())));
+    }
+
+    /**
+     * Remove todos os principais do cache
+     */
+    public void evictAll() {
+        invalidate(principals::invalidateAll);
+    }
+
+    private void invalidate(Runnable eviction) {
+        invalidations.incrementAndGet();
+        eviction.run();
+        AfterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            eviction.run();
+        });
+    }
+}
@@ -1,6 +1,8 @@
 package processofit.infra.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,10 +13,11 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -23,6 +26,21 @@ public class SecurityConfiguration {
     @Autowired
     SecurityFilter securityFilter;
 
+    @Value("${api.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    /**
+     * 0 usa o número de processadores disponíveis
+     */
+    @Value("${api.security.password.hashing.concurrency:0}")
+    private int hashingConcurrency;
+
+    @Value("${api.security.password.hashing.queue-capacity:100}")
+    private int hashingQueueCapacity;
+
+    @Value("${api.security.password.hashing.timeout:5s}")
+    private Duration hashingTimeout;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
         return httpSecurity
@@ -31,6 +49,7 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests(authorizeRequests -> authorizeRequests
                         .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
@@ -43,7 +62,13 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public ThrottledPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int concurrency = hashingConcurrency > 0 ? hashingConcurrency : Runtime.getRuntime().availableProcessors();
+        return new ThrottledPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength),
+                concurrency,
+                hashingQueueCapacity,
+                hashingTimeout,
+                meterRegistry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package processofit.infra.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PasswordEncoder que executa o hashing em um pool dedicado e limitado
+ * Limita quantos hashes rodam ao mesmo tempo e rejeita rápido quando a fila enche,
+ * para que picos de cadastro/login não consumam a CPU das demais requisições
+ */
+public class ThrottledPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public ThrottledPasswordEncoder(PasswordEncoder delegate, int concurrency, int queueCapacity,
+                                    Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hash-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("security.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Hashes aguardando na fila")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes em execução")
+                .register(meterRegistry);
+        this.encodeTimer = hashTimer("encode", meterRegistry);
+        this.matchesTimer = hashTimer("matches", meterRegistry);
+        this.rejected = Counter.builder("security.password.hash.rejected")
+                .description("Hashes rejeitados por saturação ou timeout")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Faz o hash de várias senhas em paralelo no pool, com no máximo um hash em andamento por thread,
+     * para deixar a fila livre para logins e cadastros; antes de enviar o próximo espera o mais antigo
+     * @param rawPasswords Senhas em texto puro
+     * @return Hashes, na mesma ordem das senhas
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                Callable<String> hashing = () -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword));
+                if (inFlight.size() >= executor.getMaximumPoolSize()) {
+                    encoded.add(await(inFlight.poll()));
+                }
+                while (true) {
+                    try {
+                        inFlight.add(executor.submit(hashing));
+                        break;
+                    } catch (RejectedExecutionException e) {
+                        if (inFlight.isEmpty()) {
+                            rejected.increment();
+                            throw new PasswordHashingRejectedException("Fila de hashing de senhas cheia");
+                        }
+                        encoded.add(await(inFlight.poll()));
+                    }
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                encoded.add(await(inFlight.poll()));
+            }
+            return encoded;
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Não faz hashing, só compara o custo do hash salvo com o configurado
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <R> R submit(Timer timer, Callable<R> hashing) {
+        Future<R> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(hashing));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Fila de hashing de senhas cheia");
+        }
+        return await(future);
+    }
+
+    private <R> R await(Future<R> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Tempo esgotado aguardando o hashing de senha");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o hashing de senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Erro no hashing de senha", e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("security.password.hash")
+                .description("Duração do hashing de senha, sem a espera na fila")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,10 @@
+package processofit.infra.security;
+
+import processofit.model.user.UserRole;
+
+/**
+ * Dados extraídos de um token JWT já verificado
+ * userId e role podem ser nulos em tokens emitidos antes da inclusão das claims
+ */
+public record TokenClaims(String subject, Long userId, UserRole role) {
+}
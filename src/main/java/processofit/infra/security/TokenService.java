@@ -1,12 +1,24 @@
 package processofit.infra.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import processofit.model.user.User;
+import processofit.model.user.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -14,15 +26,49 @@ import java.time.ZoneOffset;
 @Service
 public class TokenService {
 
+    private static final String ISSUER = "auth-api";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+
     @Value("{api.security.token.secret}")
     private String secret;
 
+    @Value("${api.security.token.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    /**
+     * Tokens já verificados, indexados pela assinatura.
+     * Cada entrada expira junto com o próprio token.
+     */
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new VerifiedTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
+
     public String generateToken(User user) {
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             String token = JWT.create()
-                    .withIssuer("auth-api")
+                    .withIssuer(ISSUER)
                     .withSubject(user.getEmail())
+                    .withClaim(USER_ID_CLAIM, user.getId())
+                    .withClaim(ROLE_CLAIM, user.getRole().name())
                     .withExpiresAt(generateExpirationDate())
                     .sign(algorithm);
             return token;
@@ -32,19 +78,79 @@ public class TokenService {
     }
 
     public String validateToken(String token) {
+        TokenClaims claims = decodeToken(token);
+        return claims == null ? "" : claims.subject();
+    }
+
+    /**
+     * Verifica o token e extrai subject, ID e role do usuário
+     * @param token Token JWT
+     * @return Claims do token
+     */
+    public TokenClaims decodeToken(String token) {
+        String signature = signatureOf(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(signature);
+        if (cached != null && cached.token().equals(token) && cached.expiresAt().isAfter(Instant.now())) {
+            return cached.claims();
+        }
+
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("auth-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT decoded = verifier.verify(token);
+            TokenClaims claims = new TokenClaims(
+                    decoded.getSubject(),
+                    decoded.getClaim(USER_ID_CLAIM).asLong(),
+                    roleOf(decoded));
+            Instant expiresAt = decoded.getExpiresAtAsInstant();
+            if (expiresAt != null) {
+                verifiedTokens.put(signature, new VerifiedToken(token, claims, expiresAt));
+            }
+            return claims;
         } catch (JWTCreationException e){
-            return "";
+            return null;
         }
     }
 
+    /**
+     * Estatísticas do cache de tokens verificados (hits, misses, evictions)
+     * @return Snapshot das estatísticas
+     */
+    public CacheStats getVerifiedTokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+
     private Instant generateExpirationDate() {
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
     }
+
+    private static UserRole roleOf(DecodedJWT decoded) {
+        String role = decoded.getClaim(ROLE_CLAIM).asString();
+        return role == null ? null : UserRole.valueOf(role);
+    }
+
+    private static String signatureOf(String token) {
+        int lastDot = token.lastIndexOf('.');
+        return lastDot < 0 ? token : token.substring(lastDot + 1);
+    }
+
+    private record VerifiedToken(String token, TokenClaims claims, Instant expiresAt) {
+    }
+
+    private static class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String signature, VerifiedToken token, long currentTime) {
+            long remaining = Duration.between(Instant.now(), token.expiresAt()).toNanos();
+            return Math.max(remaining, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String signature, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(signature, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String signature, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package processofit.infra.security;
+
+import processofit.model.user.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Regras de autorização usadas nas expressões de @PreAuthorize
+ * Decide apenas com o principal autenticado, sem consultar o banco
+ */
+@Component("userAuthorization")
+public class UserAuthorization {
+
+    private static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    /**
+     * Verifica se o usuário autenticado é ADMIN ou o dono do recurso
+     * @param authentication Autenticação corrente
+     * @param id ID do usuário dono do recurso
+     * @return true se o acesso é permitido
+     */
+    public boolean isSelfOrAdmin(Authentication authentication, Long id) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        return isAdmin(authentication) || (id != null && id.equals(userIdOf(authentication)));
+    }
+
+    /**
+     * A role vem das authorities do principal, que é invalidado a cada alteração do usuário
+     */
+    private boolean isAdmin(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (ROLE_ADMIN.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * O ID nunca muda, então a claim do token basta; tokens antigos usam o principal
+     */
+    private Long userIdOf(Authentication authentication) {
+        if (authentication.getDetails() instanceof TokenClaims claims && claims.userId() != null) {
+            return claims.userId();
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
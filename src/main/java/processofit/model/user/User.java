@@ -5,6 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +18,9 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +28,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(unique = true, nullable =  false)
     private Long id;
     private String name;
@@ -31,6 +39,13 @@ public class User implements UserDetails {
     private String password;
     @Column(nullable =  false)
     private UserRole role;
+    /**
+     * Versão para lock otimista; exposta como ETag pela API
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable =  false)
+    private Long version;
 
     public User(String name, String email, String password, UserRole role) {
         this.name = name;
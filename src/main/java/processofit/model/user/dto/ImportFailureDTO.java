@@ -0,0 +1,8 @@
+package processofit.model.user.dto;
+
+/**
+ * Registro recusado na importação
+ * @param index Posição do registro no array enviado (começando em 0)
+ */
+public record ImportFailureDTO(int index, String email, String reason) {
+}
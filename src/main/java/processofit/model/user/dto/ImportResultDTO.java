@@ -0,0 +1,6 @@
+package processofit.model.user.dto;
+
+import java.util.List;
+
+public record ImportResultDTO(int imported, List<ImportFailureDTO> failures) {
+}
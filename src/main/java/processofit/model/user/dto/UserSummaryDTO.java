@@ -0,0 +1,15 @@
+package processofit.model.user.dto;
+
+import processofit.model.user.User;
+import processofit.model.user.UserRole;
+
+/**
+ * Visão resumida do usuário para listagens: sem senha e sem authorities
+ * Os componentes têm o nome dos atributos de User (projeção do GenericCrudService)
+ */
+public record UserSummaryDTO(Long id, String name, String email, UserRole role, Long version) {
+
+    public static UserSummaryDTO from(User user) {
+        return new UserSummaryDTO(user.getId(), user.getName(), user.getEmail(), user.getRole(), user.getVersion());
+    }
+}
@@ -0,0 +1,34 @@
+package processofit.model.workout;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+/**
+ * Exercício do catálogo; raramente muda, então fica no cache de segundo nível
+ */
+@Entity
+@Table(name = "exercises")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Getter
+@Setter
+@NoArgsConstructor
+public class Exercise {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exercises_seq")
+    @SequenceGenerator(name = "exercises_seq", sequenceName = "exercises_seq", allocationSize = 50)
+    private Long id;
+    @Column(unique = true, nullable =  false)
+    private String name;
+    private String muscleGroup;
+
+    public Exercise(String name, String muscleGroup) {
+        this.name = name;
+        this.muscleGroup = muscleGroup;
+    }
+}
@@ -0,0 +1,51 @@
+package processofit.model.workout;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import processofit.model.user.User;
+
+import java.time.LocalDate;
+
+/**
+ * Melhor marca de um usuário em um exercício, por tipo de recorde
+ */
+@Entity
+@Table(name = "personal_records",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "exercise_id", "type"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class PersonalRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "personal_records_seq")
+    @SequenceGenerator(name = "personal_records_seq", sequenceName = "personal_records_seq", allocationSize = 50)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable =  false)
+    private User user;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "exercise_id", nullable =  false)
+    private Exercise exercise;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable =  false)
+    private PersonalRecordType type;
+    @Column(name = "record_value", nullable =  false)
+    private double value;
+    @Column(nullable =  false)
+    private LocalDate achievedOn;
+    /**
+     * Série que estabeleceu o recorde
+     */
+    private Long workoutSetId;
+    @Version
+    private Long version;
+
+    public PersonalRecord(User user, Exercise exercise, PersonalRecordType type) {
+        this.user = user;
+        this.exercise = exercise;
+        this.type = type;
+    }
+}
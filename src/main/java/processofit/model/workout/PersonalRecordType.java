@@ -0,0 +1,7 @@
+package processofit.model.workout;
+
+public enum PersonalRecordType {
+    MAX_LOAD,
+    ESTIMATED_ONE_REP_MAX,
+    MAX_SET_VOLUME
+}
@@ -0,0 +1,62 @@
+package processofit.model.workout;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import processofit.model.user.User;
+
+import java.time.LocalDate;
+
+/**
+ * Agregado de um exercício de um usuário em um dia, semana ou mês
+ * Mantido incrementalmente a cada lote de séries gravado; os relatórios só leem estas linhas
+ */
+@Entity
+@Table(name = "progress_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "exercise_id", "period", "period_start"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProgressRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "progress_rollups_seq")
+    @SequenceGenerator(name = "progress_rollups_seq", sequenceName = "progress_rollups_seq", allocationSize = 50)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable =  false)
+    private User user;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "exercise_id", nullable =  false)
+    private Exercise exercise;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable =  false)
+    private RollupPeriod period;
+    @Column(name = "period_start", nullable =  false)
+    private LocalDate periodStart;
+    /**
+     * Soma de repetições x carga
+     */
+    private double totalVolume;
+    private int totalReps;
+    private int setCount;
+    /**
+     * Dias de treino com o exercício no período
+     */
+    private int sessionCount;
+    private Double maxLoadKg;
+    private Double estimatedOneRepMax;
+    /**
+     * Detecta um recálculo concorrente com a gravação de um lote
+     */
+    @Version
+    private Long version;
+
+    public ProgressRollup(User user, Exercise exercise, RollupPeriod period, LocalDate periodStart) {
+        this.user = user;
+        this.exercise = exercise;
+        this.period = period;
+        this.periodStart = periodStart;
+    }
+}
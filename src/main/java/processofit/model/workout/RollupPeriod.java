@@ -0,0 +1,39 @@
+package processofit.model.workout;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Granularidade dos agregados de evolução; semanas começam na segunda-feira (ISO)
+ */
+public enum RollupPeriod {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * @param date Data qualquer
+     * @return Primeiro dia do período que contém a data
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * @param start Início de um período
+     * @param periods Quantidade de períodos a recuar
+     * @return Início do período recuado
+     */
+    public LocalDate minus(LocalDate start, long periods) {
+        return switch (this) {
+            case DAY -> start.minusDays(periods);
+            case WEEK -> start.minusWeeks(periods);
+            case MONTH -> start.minusMonths(periods);
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package processofit.model.workout;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import processofit.model.user.User;
+
+import java.time.LocalDate;
+
+/**
+ * Treino de um usuário em um dia; agrupa as séries registradas naquela data
+ */
+@Entity
+@Table(name = "workout_sessions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "session_date"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class WorkoutSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_sessions_seq")
+    @SequenceGenerator(name = "workout_sessions_seq", sequenceName = "workout_sessions_seq", allocationSize = 50)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable =  false)
+    private User user;
+    @Column(name = "session_date", nullable =  false)
+    private LocalDate date;
+
+    public WorkoutSession(User user, LocalDate date) {
+        this.user = user;
+        this.date = date;
+    }
+}
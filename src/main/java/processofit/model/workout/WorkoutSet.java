@@ -0,0 +1,45 @@
+package processofit.model.workout;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Série de um exercício: repetições, carga, tempo e esforço percebido
+ */
+@Entity
+@Table(name = "workout_sets", indexes = @Index(columnList = "session_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class WorkoutSet {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workout_sets_seq")
+    @SequenceGenerator(name = "workout_sets_seq", sequenceName = "workout_sets_seq", allocationSize = 50)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "session_id", nullable =  false)
+    private WorkoutSession session;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "exercise_id", nullable =  false)
+    private Exercise exercise;
+    private Integer reps;
+    private Double loadKg;
+    private Integer durationSeconds;
+    /**
+     * Esforço percebido (RPE), de 1 a 10
+     */
+    private Integer perceivedEffort;
+
+    public WorkoutSet(WorkoutSession session, Exercise exercise, Integer reps, Double loadKg,
+                      Integer durationSeconds, Integer perceivedEffort) {
+        this.session = session;
+        this.exercise = exercise;
+        this.reps = reps;
+        this.loadKg = loadKg;
+        this.durationSeconds = durationSeconds;
+        this.perceivedEffort = perceivedEffort;
+    }
+}
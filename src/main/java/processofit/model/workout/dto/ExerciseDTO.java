@@ -0,0 +1,10 @@
+package processofit.model.workout.dto;
+
+import processofit.model.workout.Exercise;
+
+public record ExerciseDTO(Long id, String name, String muscleGroup) {
+
+    public static ExerciseDTO from(Exercise exercise) {
+        return new ExerciseDTO(exercise.getId(), exercise.getName(), exercise.getMuscleGroup());
+    }
+}
@@ -0,0 +1,8 @@
+package processofit.model.workout.dto;
+
+import processofit.model.workout.PersonalRecordType;
+
+import java.time.LocalDate;
+
+public record PersonalRecordDTO(Long exerciseId, PersonalRecordType type, double value, LocalDate achievedOn) {
+}
@@ -0,0 +1,7 @@
+package processofit.model.workout.dto;
+
+import java.time.LocalDate;
+
+public record ProgressRollupDTO(LocalDate periodStart, double totalVolume, int totalReps, int setCount,
+                                int sessionCount, Double maxLoadKg, Double estimatedOneRepMax) {
+}
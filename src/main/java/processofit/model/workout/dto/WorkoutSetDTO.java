@@ -0,0 +1,7 @@
+package processofit.model.workout.dto;
+
+import java.time.LocalDate;
+
+public record WorkoutSetDTO(Long exerciseId, LocalDate date, Integer reps, Double loadKg,
+                            Integer durationSeconds, Integer perceivedEffort) {
+}
@@ -1,20 +1,36 @@
 package processofit.service;
 
+import processofit.model.user.User;
 import processofit.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class AuthoriationService implements UserDetailsService {
+public class AuthoriationService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return this.userRepository.findByEmail(username);
     }
+
+    /**
+     * Chamado no login quando o hash salvo usa um custo menor que o configurado
+     * (api.security.password.bcrypt-strength), regravando a senha com o custo atual
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = (User) user;
+        entity.setPassword(newPassword);
+        return this.userService.update(entity);
+    }
 }
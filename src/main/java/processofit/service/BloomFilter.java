@@ -0,0 +1,80 @@
+package processofit.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de strings, seguro para escrita e leitura concorrentes
+ * mightContain nunca dá falso negativo; falsos positivos ocorrem na taxa configurada
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    /**
+     * @param expectedInsertions Número de elementos esperado
+     * @param falsePositiveRate Taxa de falsos positivos com expectedInsertions elementos
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min((m + 63) / 64, Integer.MAX_VALUE - 8);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitSize;
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            if ((bits.get(word) & mask) == 0) {
+                bits.accumulateAndGet(word, mask, (current, bit) -> current | bit);
+            }
+        }
+    }
+
+    boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitSize;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre os caracteres, seguido de mistura final
+     */
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Finalizador do MurmurHash3 (fmix64)
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,24 @@
+package processofit.service;
+
+/**
+ * Modos de contagem de GenericCrudService.count
+ */
+public enum CountMode {
+
+    /**
+     * SELECT COUNT exato, percorre a tabela a cada chamada
+     */
+    EXACT,
+
+    /**
+     * Estimativa das estatísticas do planner (pg_class.reltuples)
+     * Sem PostgreSQL, ou com a tabela ainda não analisada, usa a contagem exata
+     */
+    ESTIMATED,
+
+    /**
+     * Contagem exata mantida em memória, ajustada pelos inserts/deletes do próprio serviço
+     * e recalculada periodicamente em background
+     */
+    CACHED
+}
@@ -0,0 +1,203 @@
+package processofit.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Filtro de Bloom dos emails cadastrados, usado só na pré-verificação de duplicidade
+ * Um "não existe" dispensa a consulta ao banco; um "talvez" segue para o banco
+ * Remoções não são refletidas (apenas geram falsos positivos). Emails gravados por outras
+ * instâncias só entram na próxima reconstrução; a constraint única de users.email
+ * continua sendo a palavra final
+ */
+@Component
+public class EmailExistenceFilter {
+
+    @Value("${app.email-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${app.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.email-filter.rebuild-interval:PT1H}")
+    private Duration rebuildInterval;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Filtro que responde às consultas; só é trocado quando o próximo termina de ser construído
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * Filtro em construção, ou null
+     */
+    private volatile BloomFilter building;
+
+    /**
+     * Emails adicionados desde o início da construção do filtro atual; reaplicados no próximo,
+     * cobrindo gravações que só fizeram commit depois da leitura da tabela
+     */
+    private List<String> journal = new ArrayList<>();
+
+    /**
+     * Emails adicionados desde o início da construção em andamento
+     */
+    private List<String> nextJournal;
+
+    /**
+     * add() usa o lock de leitura; início e troca de filtro usam o de escrita
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Só responde "não existe" depois da primeira construção
+     */
+    private volatile boolean ready;
+
+    private volatile Instant builtAt;
+    private volatile boolean stale;
+
+    private Counter definiteMisses;
+    private Counter possibleHits;
+
+    @PostConstruct
+    void init() {
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.definiteMisses = Counter.builder("users.email-filter.checks")
+                .description("Verificações de email respondidas pelo filtro de Bloom")
+                .tag("result", "absent")
+                .register(meterRegistry);
+        this.possibleHits = Counter.builder("users.email-filter.checks")
+                .description("Verificações de email respondidas pelo filtro de Bloom")
+                .tag("result", "possible")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a construção de um novo filtro, dimensionado para o volume atual da tabela
+     * O filtro atual continua respondendo até finishBuild
+     * @param currentRows Número atual de usuários
+     * @return false se já houver uma construção em andamento
+     */
+    boolean startBuild(long currentRows) {
+        lock.writeLock().lock();
+        try {
+            if (building != null) {
+                return false;
+            }
+            building = new BloomFilter(Math.max(expectedInsertions, currentRows * 2), falsePositiveRate);
+            nextJournal = new ArrayList<>();
+            stale = false;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registra um email lido da tabela no filtro em construção
+     * @param email Email cadastrado
+     */
+    void load(String email) {
+        BloomFilter target = building;
+        if (target != null && email != null) {
+            target.put(email);
+        }
+    }
+
+    /**
+     * Reaplica o diário no novo filtro e passa a responder com ele
+     */
+    void finishBuild() {
+        lock.writeLock().lock();
+        try {
+            journal.forEach(building::put);
+            filter = building;
+            journal = nextJournal;
+            building = null;
+            nextJournal = null;
+            builtAt = Instant.now();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta uma construção que falhou; o filtro atual continua valendo
+     */
+    void abortBuild() {
+        lock.writeLock().lock();
+        try {
+            building = null;
+            nextJournal = null;
+            stale = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marca o filtro para reconstrução, após alterações em massa que ele não acompanha
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    /**
+     * @return true se o filtro nunca foi construído, foi marcado ou passou de rebuild-interval
+     */
+    public boolean needsRebuild() {
+        Instant last = builtAt;
+        return stale || last == null || last.plus(rebuildInterval).isBefore(Instant.now());
+    }
+
+    /**
+     * Registra um email; chamado antes do insert/update para nunca haver falso negativo
+     * @param email Email cadastrado
+     */
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            filter.put(email);
+            synchronized (this) {
+                journal.add(email);
+                if (building != null) {
+                    building.put(email);
+                    nextJournal.add(email);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param email Email a ser verificado
+     * @return false apenas se o email certamente não está cadastrado
+     */
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+        boolean possible = email != null && filter.mightContain(email);
+        (possible ? possibleHits : definiteMisses).increment();
+        return possible;
+    }
+}
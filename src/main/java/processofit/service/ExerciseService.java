@@ -0,0 +1,16 @@
+package processofit.service;
+
+import processofit.model.workout.Exercise;
+import processofit.model.workout.dto.ExerciseDTO;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class ExerciseService extends GenericCrudService<Exercise, Long> {
+
+    @Override
+    protected List<Class<? extends Record>> projections() {
+        return List.of(ExerciseDTO.class);
+    }
+}
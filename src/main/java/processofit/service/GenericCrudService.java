@@ -1,19 +1,67 @@
 package processofit.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import processofit.infra.persistence.AfterCommit;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Classe genérica para operações CRUD com abstração do gerenciamento de sessões
@@ -26,11 +74,68 @@ import java.util.Optional;
 @Transactional
 public abstract class GenericCrudService<T, ID extends Serializable> {
 
+    /**
+     * Maior página aceita pelas leituras paginadas; tamanhos acima disso são reduzidos
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Timers por operação e resultado, criados sob demanda e reaproveitados
+     */
+    private final ConcurrentMap<String, Timer> operationTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Tamanho padrão dos lotes em saveAll/updateAll, alinhado ao batch do JDBC
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    /**
+     * Com write-behind, save/update/saveOrUpdate/delete/deleteById apenas enfileiram a escrita
+     * no contexto de persistência; tudo é enviado de uma vez no commit, ordenado e em batch
+     * Sem ele, cada chamada faz flush imediato
+     */
+    @Value("${app.persistence.write-behind:false}")
+    private boolean writeBehind;
+
     private final Class<T> entityClass;
 
+    /**
+     * Consultas genéricas da entidade, registradas na inicialização
+     */
+    private PreparedQuery<T> findAllQuery;
+    private PreparedQuery<T> findAllOrderedQuery;
+    private PreparedQuery<Long> countQuery;
+
+    /**
+     * Consulta de listagem (ordenada pelo ID) de cada projeção declarada pela subclasse
+     */
+    private final Map<Class<?>, PreparedQuery<?>> projectionQueries = new HashMap<>();
+
+    /**
+     * Contagem usada por CountMode.CACHED; negativa enquanto desconhecida
+     */
+    private final AtomicLong cachedCount = new AtomicLong(-1);
+
+    /**
+     * Tabela da entidade quando o banco é PostgreSQL (habilita CountMode.ESTIMATED), senão null
+     */
+    private String estimatedCountTable;
+
+    private boolean postgreSQL;
+
     @SuppressWarnings("unchecked")
     public GenericCrudService() {
         this.entityClass = (Class<T>) ((ParameterizedType) getClass()
@@ -38,19 +143,118 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
                 .getActualTypeArguments()[0];
     }
 
+    /**
+     * Registra as consultas genéricas da entidade e as declaradas pela subclasse
+     * Cada JPQL é validada e compilada uma única vez; uma consulta inválida impede a inicialização
+     */
+    @PostConstruct
+    void registerQueries() {
+        String entityName = entityManagerFactory.getMetamodel().entity(entityClass).getName();
+        String idName = idAttribute().getName();
+        findAllQuery = PreparedQuery.of(entityName + ".findAll", entityClass,
+                "SELECT e FROM " + entityName + " e");
+        findAllOrderedQuery = PreparedQuery.of(entityName + ".findAllOrderById", entityClass,
+                "SELECT e FROM " + entityName + " e ORDER BY e." + idName);
+        // Sem cache de consulta: CountMode.EXACT tem que ir ao banco; o caminho barato é o CACHED
+        countQuery = PreparedQuery.of(entityName + ".count", Long.class,
+                "SELECT COUNT(e) FROM " + entityName + " e");
+
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        postgreSQL = sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        if (postgreSQL && persister instanceof AbstractEntityPersister entityPersister) {
+            estimatedCountTable = entityPersister.getTableName();
+        }
+
+        List<PreparedQuery<?>> declared = new ArrayList<>(List.of(findAllQuery, findAllOrderedQuery, countQuery));
+        for (Class<? extends Record> projection : projections()) {
+            String arguments = Arrays.stream(projection.getRecordComponents())
+                    .map(component -> "e." + component.getName())
+                    .collect(Collectors.joining(", "));
+            PreparedQuery<? extends Record> query = PreparedQuery.of(
+                    entityName + ".findAll." + projection.getSimpleName(), projection,
+                    "SELECT new " + projection.getName() + "(" + arguments + ") FROM " + entityName + " e ORDER BY e." + idName);
+            projectionQueries.put(projection, query);
+            declared.add(query);
+        }
+        declared.addAll(queries());
+
+        EntityManager registrar = entityManagerFactory.createEntityManager();
+        try {
+            for (PreparedQuery<?> query : declared) {
+                try {
+                    entityManagerFactory.addNamedQuery(query.name(),
+                            registrar.createQuery(query.jpql(), query.resultType()));
+                } catch (Exception e) {
+                    throw new IllegalStateException("Consulta inválida " + query.name() + ": " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            registrar.close();
+        }
+    }
+
+    /**
+     * Projeções (records) aceitas pelos métodos de leitura com projeção
+     * Cada componente do record é lido do atributo de mesmo nome da entidade, na ordem declarada
+     * @return Projeções declaradas pela subclasse
+     */
+    protected List<Class<? extends Record>> projections() {
+        return List.of();
+    }
+
+    /**
+     * Indica se o banco é PostgreSQL, para subclasses que usam SQL nativo específico
+     * @return true com o dialeto do PostgreSQL
+     */
+    protected boolean isPostgreSQL() {
+        return postgreSQL;
+    }
+
+    /**
+     * Consultas nomeadas da subclasse, registradas junto com as genéricas
+     * @return Consultas declaradas pela subclasse
+     */
+    protected List<PreparedQuery<?>> queries() {
+        return List.of();
+    }
+
     /**
      * Salva uma nova entidade
      * @param entity Entidade a ser salva
      * @return Entidade salva com ID gerado
      */
     public T save(T entity) {
-        try {
+        return executeWrite("save", "Erro ao salvar entidade", () -> {
             entityManager.persist(entity);
-            entityManager.flush();
+            flushUnlessWriteBehind();
+            adjustCachedCount(1);
             return entity;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao salvar entidade: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    /**
+     * Salva uma nova entidade e envia o INSERT imediatamente, mesmo com write-behind
+     * Para quem precisa de erros de constraint ou de IDs gerados pelo banco (IDENTITY) na hora;
+     * IDs de sequence já estão disponíveis após save
+     * @param entity Entidade a ser salva
+     * @return Entidade salva com ID gerado
+     */
+    public T saveAndFlush(T entity) {
+        T saved = save(entity);
+        flush();
+        return saved;
+    }
+
+    /**
+     * Atualiza uma entidade e envia o UPDATE imediatamente, mesmo com write-behind
+     * @param entity Entidade a ser atualizada
+     * @return Entidade atualizada, com a nova versão
+     */
+    public T updateAndFlush(T entity) {
+        T updated = update(entity);
+        flush();
+        return updated;
     }
 
     /**
@@ -59,13 +263,78 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      * @return Entidade atualizada
      */
     public T update(T entity) {
-        try {
+        return executeWrite("update", "Erro ao atualizar entidade", () -> {
             T merged = entityManager.merge(entity);
-            entityManager.flush();
+            flushUnlessWriteBehind();
             return merged;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao atualizar entidade: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    /**
+     * Salva uma coleção de entidades em lotes do tamanho do batch JDBC
+     * @param entities Entidades a serem salvas
+     * @return Entidades salvas, já desanexadas e com ID gerado
+     */
+    public List<T> saveAll(Collection<T> entities) {
+        return saveAll(entities, batchSize);
+    }
+
+    /**
+     * Salva uma coleção de entidades em lotes
+     * Cada lote é enviado em batch e o contexto de persistência é limpo em seguida,
+     * então entidades gerenciadas pelo chamador também são desanexadas
+     * @param entities Entidades a serem salvas
+     * @param chunkSize Número de entidades por lote
+     * @return Entidades salvas, já desanexadas e com ID gerado
+     */
+    public List<T> saveAll(Collection<T> entities, int chunkSize) {
+        return execute("saveAll", "Erro ao salvar entidades em lote", () -> {
+            List<T> saved = new ArrayList<>(entities.size());
+            int pending = 0;
+            for (T entity : entities) {
+                entityManager.persist(entity);
+                saved.add(entity);
+                if (++pending == chunkSize) {
+                    flushAndClear();
+                    pending = 0;
+                }
+            }
+            flushAndClear();
+            adjustCachedCount(saved.size());
+            return saved;
+        });
+    }
+
+    /**
+     * Atualiza uma coleção de entidades em lotes do tamanho do batch JDBC
+     * @param entities Entidades a serem atualizadas
+     * @return Entidades atualizadas, já desanexadas
+     */
+    public List<T> updateAll(Collection<T> entities) {
+        return updateAll(entities, batchSize);
+    }
+
+    /**
+     * Atualiza uma coleção de entidades em lotes
+     * Cada lote é enviado em batch e o contexto de persistência é limpo em seguida
+     * @param entities Entidades a serem atualizadas
+     * @param chunkSize Número de entidades por lote
+     * @return Entidades atualizadas, já desanexadas
+     */
+    public List<T> updateAll(Collection<T> entities, int chunkSize) {
+        return execute("updateAll", "Erro ao atualizar entidades em lote", () -> {
+            List<T> updated = new ArrayList<>(entities.size());
+            int pending = 0;
+            for (T entity : entities) {
+                updated.add(entityManager.merge(entity));
+                if (++pending == chunkSize) {
+                    flushAndClear();
+                    pending = 0;
+                }
+            }
+            flushAndClear();
+            return updated;
+        });
     }
 
     /**
@@ -74,13 +343,15 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      * @return Entidade processada
      */
     public T saveOrUpdate(T entity) {
-        try {
+        return executeWrite("saveOrUpdate", "Erro ao salvar/atualizar entidade", () -> {
+            boolean inserting = entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity) == null;
             T merged = entityManager.merge(entity);
-            entityManager.flush();
+            flushUnlessWriteBehind();
+            if (inserting) {
+                adjustCachedCount(1);
+            }
             return merged;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao salvar/atualizar entidade: " + e.getMessage(), e);
-        }
+        });
     }
 
     /**
@@ -90,12 +361,10 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      */
     @Transactional(readOnly = true)
     public Optional<T> findById(ID id) {
-        try {
+        return execute("findById", "Erro ao buscar entidade por ID", () -> {
             T entity = entityManager.find(entityClass, id);
             return Optional.ofNullable(entity);
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao buscar entidade por ID: " + e.getMessage(), e);
-        }
+        });
     }
 
     /**
@@ -117,41 +386,215 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      */
     @Transactional(readOnly = true)
     public List<T> findAll() {
-        try {
-            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-            CriteriaQuery<T> cq = cb.createQuery(entityClass);
-            Root<T> root = cq.from(entityClass);
-            cq.select(root);
+        return execute("findAll", "Erro ao buscar todas as entidades",
+                () -> createQuery(findAllQuery).getResultList());
+    }
 
-            TypedQuery<T> query = entityManager.createQuery(cq);
-            return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao buscar todas as entidades: " + e.getMessage(), e);
-        }
+    /**
+     * Percorre todas as entidades com um cursor forward-only, sem materializar a lista
+     * Cada entidade é desanexada após ser processada, mantendo a memória constante
+     * @param fetchSize Número de linhas trazidas do banco por ida
+     * @param action Ação executada para cada entidade
+     * @return Número de entidades processadas
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(int fetchSize, Consumer<? super T> action) {
+        return execute("streamAll", "Erro ao percorrer entidades", () -> {
+            TypedQuery<T> query = createQuery(findAllOrderedQuery)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true);
+
+            long count = 0;
+            try (Stream<T> rows = query.getResultStream()) {
+                Iterator<T> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    T entity = iterator.next();
+                    action.accept(entity);
+                    entityManager.detach(entity);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Percorre o resultado de uma consulta registrada com um cursor forward-only
+     * @param query Consulta registrada
+     * @param fetchSize Número de linhas trazidas do banco por ida
+     * @param action Ação executada para cada linha
+     * @param bindings Valores dos parâmetros
+     * @return Número de linhas processadas
+     */
+    @Transactional(readOnly = true)
+    public <R> long streamQuery(PreparedQuery<R> query, int fetchSize, Consumer<? super R> action,
+                                QueryParameter.Binding<?>... bindings) {
+        return execute(query.name(), "Erro ao percorrer consulta " + query.name(), () -> {
+            long count = 0;
+            try (Stream<R> rows = createQuery(query, bindings)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                Iterator<R> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    action.accept(iterator.next());
+                    count++;
+                }
+            }
+            return count;
+        });
     }
 
     /**
-     * Lista entidades com paginação
+     * Lista entidades com paginação, ordenadas pelo ID
      * @param page Número da página (começando em 0)
      * @param size Tamanho da página
      * @return Lista paginada de entidades
      */
     @Transactional(readOnly = true)
     public List<T> findAll(int page, int size) {
-        try {
-            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-            CriteriaQuery<T> cq = cb.createQuery(entityClass);
-            Root<T> root = cq.from(entityClass);
-            cq.select(root);
+        return execute("findAllPaged", "Erro ao buscar entidades paginadas", () -> createQuery(findAllOrderedQuery)
+                .setFirstResult(Math.multiplyExact(page, pageSize(size)))
+                .setMaxResults(pageSize(size))
+                .getResultList());
+    }
+
+    /**
+     * Lista entidades com paginação keyset (seek), com custo constante por página
+     * Ordena pelo atributo informado, usando o ID como desempate
+     * @param sortKey Atributo de ordenação (deve ser não nulo em todas as linhas)
+     * @param cursor Cursor retornado pela página anterior, ou null para a primeira página
+     * @param size Tamanho da página
+     * @return Página com as entidades e o cursor da próxima página
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<T> findAllAfter(String sortKey, String cursor, int size) {
+        return execute("findAllAfter", "Erro ao buscar entidades por cursor", () -> seek(
+                entityClass, (cb, root) -> root, this::attributeValue, sortKey, cursor, size));
+    }
 
-            TypedQuery<T> query = entityManager.createQuery(cq);
-            query.setFirstResult(page * size);
-            query.setMaxResults(size);
+    /**
+     * Lista todas as entidades como projeção, ordenadas pelo ID, sem carregar entidades gerenciadas
+     * @param projection Projeção declarada em projections()
+     * @return Lista de projeções
+     */
+    @Transactional(readOnly = true)
+    public <P extends Record> List<P> findAll(Class<P> projection) {
+        return execute("findAllProjected", "Erro ao buscar projeções", () -> projectionQuery(projection)
+                .getResultList());
+    }
 
-            return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao buscar entidades paginadas: " + e.getMessage(), e);
+    /**
+     * Lista entidades como projeção, com paginação, ordenadas pelo ID
+     * @param projection Projeção declarada em projections()
+     * @param page Número da página (começando em 0)
+     * @param size Tamanho da página
+     * @return Lista paginada de projeções
+     */
+    @Transactional(readOnly = true)
+    public <P extends Record> List<P> findAll(Class<P> projection, int page, int size) {
+        return execute("findAllProjectedPaged", "Erro ao buscar projeções paginadas", () -> projectionQuery(projection)
+                .setFirstResult(Math.multiplyExact(page, pageSize(size)))
+                .setMaxResults(pageSize(size))
+                .getResultList());
+    }
+
+    /**
+     * Percorre todas as entidades como projeção com um cursor forward-only
+     * @param projection Projeção declarada em projections()
+     * @param fetchSize Número de linhas trazidas do banco por ida
+     * @param action Ação executada para cada projeção
+     * @return Número de linhas processadas
+     */
+    @Transactional(readOnly = true)
+    public <P extends Record> long streamAll(Class<P> projection, int fetchSize, Consumer<? super P> action) {
+        return execute("streamAllProjected", "Erro ao percorrer projeções", () -> {
+            long count = 0;
+            try (Stream<P> rows = projectionQuery(projection)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .getResultStream()) {
+                Iterator<P> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    action.accept(iterator.next());
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Paginação keyset (seek) devolvendo projeções
+     * O atributo de ordenação e o ID precisam ser componentes da projeção
+     * @param projection Record cujos componentes têm o nome dos atributos da entidade
+     * @param sortKey Atributo de ordenação (deve ser não nulo em todas as linhas)
+     * @param cursor Cursor retornado pela página anterior, ou null para a primeira página
+     * @param size Tamanho da página
+     * @return Página com as projeções e o cursor da próxima página
+     */
+    @Transactional(readOnly = true)
+    public <P extends Record> KeysetPage<P> findAllAfter(Class<P> projection, String sortKey, String cursor, int size) {
+        return execute("findAllAfterProjected", "Erro ao buscar projeções por cursor", () -> seek(
+                projection,
+                (cb, root) -> cb.construct(projection, projectionSelections(projection, root)),
+                (row, attribute) -> componentValue(row, attribute.getName()),
+                sortKey, cursor, size));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <P> KeysetPage<P> seek(Class<P> resultType,
+                                   BiFunction<CriteriaBuilder, Root<T>, Selection<? extends P>> selection,
+                                   BiFunction<P, SingularAttribute<? super T, ?>, Object> valueReader,
+                                   String sortKey, String cursor, int requestedSize) {
+        int size = pageSize(requestedSize);
+        SingularAttribute<? super T, ?> idAttribute = idAttribute();
+        SingularAttribute<? super T, ?> sortAttribute = entityManager.getMetamodel()
+                .entity(entityClass)
+                .getSingularAttribute(sortKey);
+        boolean sortById = sortAttribute.getName().equals(idAttribute.getName());
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<P> cq = cb.createQuery(resultType);
+        Root<T> root = cq.from(entityClass);
+        Path<Comparable> idPath = root.get(idAttribute.getName());
+        Path<Comparable> sortPath = root.get(sortAttribute.getName());
+        cq.select(selection.apply(cb, root));
+
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor position = KeysetCursor.decode(cursor, sortKey);
+            Comparable lastId = fromCursor(position.id(), idAttribute.getJavaType());
+            if (sortById) {
+                cq.where(cb.greaterThan(idPath, lastId));
+            } else {
+                Comparable lastValue = fromCursor(position.value(), sortAttribute.getJavaType());
+                cq.where(cb.or(
+                        cb.greaterThan(sortPath, lastValue),
+                        cb.and(cb.equal(sortPath, lastValue), cb.greaterThan(idPath, lastId))));
+            }
+        }
+
+        if (sortById) {
+            cq.orderBy(cb.asc(idPath));
+        } else {
+            cq.orderBy(cb.asc(sortPath), cb.asc(idPath));
         }
+
+        // Busca uma linha a mais para saber se existe próxima página
+        List<P> rows = entityManager.createQuery(cq)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(size + 1)
+                .getResultList();
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+
+        List<P> content = new ArrayList<>(rows.subList(0, size));
+        P last = content.get(size - 1);
+        String nextCursor = new KeysetCursor(
+                sortKey,
+                String.valueOf(valueReader.apply(last, idAttribute)),
+                String.valueOf(valueReader.apply(last, sortAttribute))).encode();
+        return new KeysetPage<>(content, nextCursor);
     }
 
     /**
@@ -160,36 +603,90 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      */
     @Transactional(readOnly = true)
     public long count() {
-        try {
-            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-            CriteriaQuery<Long> cq = cb.createQuery(Long.class);
-            Root<T> root = cq.from(entityClass);
-            cq.select(cb.count(root));
+        return count(CountMode.EXACT);
+    }
 
-            TypedQuery<Long> query = entityManager.createQuery(cq);
-            return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao contar entidades: " + e.getMessage(), e);
+    /**
+     * Conta o total de entidades no modo escolhido pelo chamador
+     * @param mode Exata, estimada pelo planner ou exata em cache
+     * @return Número total de entidades (aproximado nos modos ESTIMATED e CACHED)
+     */
+    @Transactional(readOnly = true)
+    public long count(CountMode mode) {
+        return switch (mode) {
+            case EXACT -> exactCount();
+            case ESTIMATED -> estimatedCount();
+            case CACHED -> {
+                long cached = cachedCount.get();
+                yield cached >= 0 ? cached : refreshCachedCount();
+            }
+        };
+    }
+
+    /**
+     * Recalcula a contagem em cache, corrigindo desvios de escritas feitas fora do serviço
+     * Só roda depois que alguém pediu CountMode.CACHED
+     */
+    @Scheduled(fixedDelayString = "${app.count-cache.refresh-interval:PT1M}",
+            initialDelayString = "${app.count-cache.refresh-interval:PT1M}")
+    @Transactional(readOnly = true)
+    public void refreshCachedCountIfUsed() {
+        if (cachedCount.get() >= 0) {
+            refreshCachedCount();
         }
     }
 
+    private long refreshCachedCount() {
+        long exact = exactCount();
+        cachedCount.set(exact);
+        return exact;
+    }
+
+    private long exactCount() {
+        return execute("count", "Erro ao contar entidades",
+                () -> createQuery(countQuery).getSingleResult());
+    }
+
+    private long estimatedCount() {
+        if (estimatedCountTable == null) {
+            return exactCount();
+        }
+        long estimate = execute("countEstimated", "Erro ao estimar contagem de entidades", () -> {
+            Number reltuples = (Number) entityManager
+                    .createNativeQuery("SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST(:table AS regclass)")
+                    .setParameter("table", estimatedCountTable)
+                    .getSingleResult();
+            return reltuples.longValue();
+        });
+        // reltuples é -1 enquanto a tabela não passou por VACUUM/ANALYZE
+        return estimate >= 0 ? estimate : exactCount();
+    }
+
+    /**
+     * Ajusta a contagem em cache após o commit, se ela já for conhecida
+     * @param delta Linhas inseridas (positivo) ou removidas (negativo)
+     */
+    private void adjustCachedCount(long delta) {
+        AfterCommit.run(() -> cachedCount.getAndUpdate(count -> count < 0 ? count : Math.max(count + delta, 0)));
+    }
+
     /**
      * Remove uma entidade pelo ID
      * @param id ID da entidade a ser removida
      * @return true se a entidade foi removida, false se não foi encontrada
      */
     public boolean deleteById(ID id) {
-        try {
+        return executeWrite("deleteById", "Erro ao deletar entidade por ID", () -> {
+            beforeDelete(List.of(id));
             T entity = entityManager.find(entityClass, id);
             if (entity != null) {
                 entityManager.remove(entity);
-                entityManager.flush();
+                flushUnlessWriteBehind();
+                adjustCachedCount(-1);
                 return true;
             }
             return false;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao deletar entidade por ID: " + e.getMessage(), e);
-        }
+        });
     }
 
     /**
@@ -197,7 +694,12 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      * @param entity Entidade a ser removida
      */
     public void delete(T entity) {
-        try {
+        executeWrite("delete", "Erro ao deletar entidade", () -> {
+            @SuppressWarnings("unchecked")
+            ID id = (ID) entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity);
+            if (id != null) {
+                beforeDelete(List.of(id));
+            }
             if (entityManager.contains(entity)) {
                 entityManager.remove(entity);
             } else {
@@ -205,30 +707,154 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
                 T managedEntity = entityManager.merge(entity);
                 entityManager.remove(managedEntity);
             }
-            entityManager.flush();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao deletar entidade: " + e.getMessage(), e);
-        }
+            flushUnlessWriteBehind();
+            adjustCachedCount(-1);
+            return null;
+        });
     }
 
     /**
-     * Remove todas as entidades (cuidado!)
+     * Remove todas as entidades (cuidado!) com um único DELETE, sem carregá-las
+     * @return Número de linhas removidas
      */
-    public void deleteAll() {
-        try {
+    public int deleteAll() {
+        return deleteWhere(null);
+    }
+
+    /**
+     * Remove as entidades que atendem à condição com um único DELETE, sem carregá-las
+     * O contexto de persistência é sincronizado antes e limpo depois da operação
+     * @param where Condição de remoção, ou null para remover todas
+     * @return Número de linhas removidas
+     */
+    public int deleteWhere(PredicateSpec<T> where) {
+        return execute("deleteWhere", "Erro ao deletar entidades em massa", () -> {
             CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-            CriteriaQuery<T> cq = cb.createQuery(entityClass);
-            Root<T> root = cq.from(entityClass);
-            cq.select(root);
+            CriteriaDelete<T> delete = cb.createCriteriaDelete(entityClass);
+            Root<T> root = delete.from(entityClass);
+            if (where != null) {
+                delete.where(where.toPredicate(root, cb));
+            }
 
-            List<T> entities = entityManager.createQuery(cq).getResultList();
-            for (T entity : entities) {
-                entityManager.remove(entity);
+            return executeBulk(entityManager.createQuery(delete));
+        });
+    }
+
+    /**
+     * Remove as entidades que atendem à condição em lotes limitados,
+     * cada lote em sua própria transação, para não manter locks longos em tabelas grandes
+     * Só os IDs de cada lote são lidos; nenhuma entidade é carregada
+     * @param where Condição de remoção, ou null para remover todas
+     * @param chunkSize Número máximo de linhas por lote
+     * @return Número total de linhas removidas
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteWhereInChunks(PredicateSpec<T> where, int chunkSize) {
+        return execute("deleteWhereInChunks", "Erro ao deletar entidades em lotes", () -> {
+            TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+            chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+            long total = 0;
+            Integer deleted;
+            do {
+                deleted = chunkTransaction.execute(status -> deleteChunk(where, chunkSize));
+                total += deleted == null ? 0 : deleted;
+            } while (deleted != null && deleted == chunkSize);
+            return total;
+        });
+    }
+
+    /**
+     * Atualiza as entidades que atendem à condição com um único UPDATE, sem carregá-las
+     * Se a entidade tem @Version, a versão de cada linha alterada é incrementada
+     * O contexto de persistência é sincronizado antes e limpo depois da operação
+     * @param where Condição de atualização, ou null para atualizar todas
+     * @param values Novos valores, indexados pelo nome do atributo
+     * @return Número de linhas atualizadas
+     */
+    public int updateWhere(PredicateSpec<T> where, Map<String, ?> values) {
+        return execute("updateWhere", "Erro ao atualizar entidades em massa", () -> {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityClass);
+            Root<T> root = update.from(entityClass);
+            values.forEach(update::set);
+            // Sem incrementar a versão, ETags e If-Match continuariam aceitando a versão anterior
+            SingularAttribute<? super T, ?> version = versionAttribute();
+            if (version != null) {
+                Path<Number> versionPath = root.get(version.getName());
+                update.set(versionPath, cb.sum(versionPath, 1));
             }
-            entityManager.flush();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao deletar todas as entidades: " + e.getMessage(), e);
+            if (where != null) {
+                update.where(where.toPredicate(root, cb));
+            }
+
+            return executeBulk(entityManager.createQuery(update));
+        });
+    }
+
+    /**
+     * Chamado após toda operação em massa, para subclasses invalidarem estado derivado
+     */
+    protected void afterBulkChange() {
+    }
+
+    /**
+     * Chamado na mesma transação antes de remover entidades por deleteById, delete e
+     * cada lote de deleteWhereInChunks, para subclasses removerem dependentes sem cascata no banco
+     * deleteWhere não lê os IDs: a subclasse que precisar sobrescreve-o usando findIds
+     * O contexto de persistência pode ser limpo pela implementação
+     * @param ids IDs das entidades que serão removidas (podem não existir)
+     */
+    protected void beforeDelete(List<ID> ids) {
+    }
+
+    /**
+     * IDs das entidades que atendem à condição, sem carregá-las
+     * @param where Condição, ou null para todas
+     * @return IDs encontrados
+     */
+    protected List<ID> findIds(PredicateSpec<T> where) {
+        return selectIds(where, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ID> selectIds(PredicateSpec<T> where, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> idQuery = cb.createQuery(Object.class);
+        Root<T> idRoot = idQuery.from(entityClass);
+        idQuery.select(idRoot.get(idAttribute().getName()));
+        if (where != null) {
+            idQuery.where(where.toPredicate(idRoot, cb));
+        }
+        TypedQuery<Object> query = entityManager.createQuery(idQuery);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return (List<ID>) (List<?>) query.getResultList();
+    }
+
+    private int deleteChunk(PredicateSpec<T> where, int chunkSize) {
+        List<ID> ids = selectIds(where, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
         }
+        beforeDelete(ids);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<T> delete = cb.createCriteriaDelete(entityClass);
+        Root<T> root = delete.from(entityClass);
+        delete.where(root.get(idAttribute().getName()).in(ids));
+        return executeBulk(entityManager.createQuery(delete));
+    }
+
+    private int executeBulk(Query statement) {
+        entityManager.flush();
+        int affected = statement.executeUpdate();
+        entityManager.clear();
+        cachedCount.set(-1);
+        AfterCommit.run(() -> cachedCount.set(-1));
+        afterBulkChange();
+        return affected;
     }
 
     /**
@@ -238,12 +864,52 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      */
     @Transactional(readOnly = true)
     public boolean existsById(ID id) {
-        try {
+        return execute("existsById", "Erro ao verificar existência da entidade", () -> {
             T entity = entityManager.find(entityClass, id);
             return entity != null;
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao verificar existência da entidade: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    /**
+     * Executa uma consulta registrada, com parâmetros tipados
+     * @param query Consulta registrada
+     * @param bindings Valores dos parâmetros
+     * @return Lista de resultados
+     */
+    @Transactional(readOnly = true)
+    public <R> List<R> executeQuery(PreparedQuery<R> query, QueryParameter.Binding<?>... bindings) {
+        return execute(query.name(), "Erro ao executar consulta " + query.name(),
+                () -> createQuery(query, bindings).getResultList());
+    }
+
+    /**
+     * Executa uma consulta registrada limitando o número de resultados
+     * @param query Consulta registrada
+     * @param maxResults Número máximo de resultados
+     * @param bindings Valores dos parâmetros
+     * @return Lista de resultados
+     */
+    @Transactional(readOnly = true)
+    public <R> List<R> executeQuery(PreparedQuery<R> query, int maxResults, QueryParameter.Binding<?>... bindings) {
+        return execute(query.name(), "Erro ao executar consulta " + query.name(), () -> createQuery(query, bindings)
+                .setMaxResults(maxResults)
+                .getResultList());
+    }
+
+    /**
+     * Executa uma consulta registrada e retorna apenas o primeiro resultado
+     * Usa getResultList: o cursor não fica aberto e o cache de consultas é respeitado
+     * @param query Consulta registrada
+     * @param bindings Valores dos parâmetros
+     * @return Optional com o primeiro resultado ou vazio
+     */
+    @Transactional(readOnly = true)
+    public <R> Optional<R> executeFirst(PreparedQuery<R> query, QueryParameter.Binding<?>... bindings) {
+        return execute(query.name(), "Erro ao executar consulta " + query.name(), () -> createQuery(query, bindings)
+                .setMaxResults(1)
+                .getResultList()
+                .stream()
+                .findFirst());
     }
 
     /**
@@ -253,12 +919,10 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      */
     @Transactional(readOnly = true)
     public List<T> executeQuery(String jpql) {
-        try {
+        return execute("executeQuery", "Erro ao executar query personalizada", () -> {
             TypedQuery<T> query = entityManager.createQuery(jpql, entityClass);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao executar query personalizada: " + e.getMessage(), e);
-        }
+        });
     }
 
     /**
@@ -269,7 +933,7 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      */
     @Transactional(readOnly = true)
     public List<T> executeQuery(String jpql, Object... parameters) {
-        try {
+        return execute("executeQuery", "Erro ao executar query personalizada com parâmetros", () -> {
             TypedQuery<T> query = entityManager.createQuery(jpql, entityClass);
 
             // Define os parâmetros em pares (nome, valor)
@@ -278,16 +942,35 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
             }
 
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao executar query personalizada com parâmetros: " + e.getMessage(), e);
-        }
+        });
     }
 
     /**
      * Força a sincronização das mudanças com o banco de dados
      */
     public void flush() {
+        execute("flush", "Erro ao sincronizar mudanças com o banco", () -> {
+            entityManager.flush();
+            return null;
+        });
+    }
+
+    private void flushUnlessWriteBehind() {
+        if (!writeBehind) {
+            entityManager.flush();
+        }
+    }
+
+    private static int pageSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Tamanho de página inválido: " + size);
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private void flushAndClear() {
         entityManager.flush();
+        entityManager.clear();
     }
 
     /**
@@ -302,11 +985,10 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
      * @param entity Entidade a ser atualizada
      */
     public void refresh(T entity) {
-        try {
+        execute("refresh", "Erro ao fazer refresh da entidade", () -> {
             entityManager.refresh(entity);
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao fazer refresh da entidade: " + e.getMessage(), e);
-        }
+            return null;
+        });
     }
 
     /**
@@ -317,6 +999,143 @@ public abstract class GenericCrudService<T, ID extends Serializable> {
         entityManager.detach(entity);
     }
 
+    private <R> TypedQuery<R> createQuery(PreparedQuery<R> query, QueryParameter.Binding<?>... bindings) {
+        TypedQuery<R> typed = entityManager.createNamedQuery(query.name(), query.resultType());
+        if (query.cacheable()) {
+            typed.setHint(HibernateHints.HINT_CACHEABLE, true);
+        }
+        for (QueryParameter.Binding<?> binding : bindings) {
+            typed.setParameter(binding.parameter().name(), binding.value());
+        }
+        return typed;
+    }
+
+    /**
+     * Executa a operação medindo sua duração, por entidade, operação e resultado
+     * Falhas são embrulhadas em RuntimeException com a mensagem informada
+     * Disponível para subclasses medirem suas próprias consultas
+     * @param operation Nome da operação (tag "operation" da métrica crud.operation)
+     * @param errorMessage Mensagem usada se a operação falhar
+     * @param action Corpo da operação
+     * @return Resultado da operação
+     */
+    protected <R> R execute(String operation, String errorMessage, Supplier<R> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (Exception e) {
+            outcome = "error";
+            throw new RuntimeException(errorMessage + ": " + e.getMessage(), e);
+        } finally {
+            sample.stop(operationTimer(operation, outcome));
+        }
+    }
+
+    /**
+     * Como execute, para as escritas que respeitam o write-behind
+     * Com write-behind o INSERT/UPDATE/DELETE só chega ao banco no commit, então o resultado
+     * (e a duração, até o fim da transação) é registrado quando a transação termina
+     */
+    private <R> R executeWrite(String operation, String errorMessage, Supplier<R> action) {
+        if (!writeBehind || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return execute(operation, errorMessage, action);
+        }
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = action.get();
+        } catch (Exception e) {
+            operationTimer(operation, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new RuntimeException(errorMessage + ": " + e.getMessage(), e);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                operationTimer(operation, status == STATUS_COMMITTED ? "success" : "error")
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+        return result;
+    }
+
+    private Timer operationTimer(String operation, String outcome) {
+        return operationTimers.computeIfAbsent(operation + ":" + outcome, key -> Timer.builder("crud.operation")
+                .description("Duração das operações do GenericCrudService")
+                .tag("entity", entityClass.getSimpleName())
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Atributo identificador da entidade, obtido do metamodelo JPA
+     * @return Atributo ID
+     */
+    protected SingularAttribute<? super T, ?> idAttribute() {
+        EntityType<T> entityType = entityManagerFactory.getMetamodel().entity(entityClass);
+        return entityType.getId(entityType.getIdType().getJavaType());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <P> TypedQuery<P> projectionQuery(Class<P> projection) {
+        PreparedQuery<P> query = (PreparedQuery<P>) projectionQueries.get(projection);
+        if (query == null) {
+            throw new IllegalArgumentException("Projeção não declarada para "
+                    + entityClass.getSimpleName() + ": " + projection.getSimpleName());
+        }
+        return createQuery(query).setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    private Selection<?>[] projectionSelections(Class<? extends Record> projection, Root<T> root) {
+        return Arrays.stream(projection.getRecordComponents())
+                .map(component -> root.get(component.getName()))
+                .toArray(Selection<?>[]::new);
+    }
+
+    private static Object componentValue(Record row, String name) {
+        for (RecordComponent component : row.getClass().getRecordComponents()) {
+            if (component.getName().equals(name)) {
+                return ReflectionUtils.invokeMethod(component.getAccessor(), row);
+            }
+        }
+        throw new IllegalArgumentException("Projeção sem o atributo " + name + ": " + row.getClass().getSimpleName());
+    }
+
+    /**
+     * Atributo @Version da entidade, obtido do metamodelo JPA
+     * @return Atributo de versão, ou null se a entidade não é versionada
+     */
+    protected SingularAttribute<? super T, ?> versionAttribute() {
+        EntityType<T> entityType = entityManagerFactory.getMetamodel().entity(entityClass);
+        if (!entityType.hasVersionAttribute()) {
+            return null;
+        }
+        return entityType.getSingularAttributes().stream()
+                .filter(SingularAttribute::isVersion)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Object attributeValue(T entity, SingularAttribute<? super T, ?> attribute) {
+        Member member = attribute.getJavaMember();
+        if (member instanceof Field field) {
+            ReflectionUtils.makeAccessible(field);
+            return ReflectionUtils.getField(field, entity);
+        }
+        if (member instanceof Method method) {
+            ReflectionUtils.makeAccessible(method);
+            return ReflectionUtils.invokeMethod(method, entity);
+        }
+        throw new IllegalArgumentException("Atributo sem acesso suportado: " + attribute.getName());
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable fromCursor(String value, Class<?> type) {
+        return (Comparable) DefaultConversionService.getSharedInstance().convert(value, type);
+    }
+
     /**
      * Obtém o EntityManager para operações avançadas
      * Use com cuidado!
@@ -0,0 +1,27 @@
+package processofit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição da última linha de uma página keyset, codificada como cursor opaco
+ * O atributo de ordenação faz parte do cursor para rejeitar cursores de outra ordenação
+ */
+record KeysetCursor(String sortKey, String id, String value) {
+
+    private static final String SEPARATOR = "\n";
+
+    String encode() {
+        String raw = sortKey + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetCursor decode(String cursor, String expectedSortKey) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, 3);
+        if (parts.length != 3 || !parts[0].equals(expectedSortKey)) {
+            throw new IllegalArgumentException("Cursor inválido para a ordenação " + expectedSortKey);
+        }
+        return new KeysetCursor(parts[0], parts[1], parts[2]);
+    }
+}
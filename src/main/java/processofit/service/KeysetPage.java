@@ -0,0 +1,12 @@
+package processofit.service;
+
+import java.util.List;
+
+/**
+ * Página de resultados da paginação keyset
+ * @param content Entidades da página
+ * @param nextCursor Cursor opaco da próxima página, ou null se esta for a última
+ * @param <T> Tipo da entidade
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+}
@@ -0,0 +1,9 @@
+package processofit.service;
+
+import processofit.model.workout.dto.WorkoutSetDTO;
+
+/**
+ * Série aceita pela ingestão e ainda não gravada
+ */
+public record PendingWorkoutSet(Long userId, WorkoutSetDTO set) {
+}
@@ -0,0 +1,64 @@
+package processofit.service;
+
+import processofit.model.workout.PersonalRecord;
+import processofit.model.workout.dto.PersonalRecordDTO;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class PersonalRecordService extends GenericCrudService<PersonalRecord, Long> {
+
+    private static final QueryParameter<Long> USER_ID = QueryParameter.of("userId", Long.class);
+
+    private static final PreparedQuery<PersonalRecord> FIND_BY_USER = PreparedQuery.of(
+            "PersonalRecord.findByUser", PersonalRecord.class,
+            "SELECT p FROM PersonalRecord p WHERE p.user.id = :userId");
+    private static final PreparedQuery<PersonalRecordDTO> FIND_SUMMARY_BY_USER = PreparedQuery.of(
+            "PersonalRecord.findSummaryByUser", PersonalRecordDTO.class,
+            "SELECT new " + PersonalRecordDTO.class.getName() + "(p.exercise.id, p.type, p.value, p.achievedOn) "
+                    + "FROM PersonalRecord p WHERE p.user.id = :userId ORDER BY p.exercise.id, p.type");
+
+    @Override
+    protected List<PreparedQuery<?>> queries() {
+        return List.of(FIND_BY_USER, FIND_SUMMARY_BY_USER);
+    }
+
+    /**
+     * @param userId ID do usuário
+     * @return Recordes do usuário, gerenciados
+     */
+    @Transactional(readOnly = true)
+    public List<PersonalRecord> findByUser(Long userId) {
+        return executeQuery(FIND_BY_USER, USER_ID.bind(userId));
+    }
+
+    /**
+     * @param userId ID do usuário
+     * @return Recordes do usuário, por exercício e tipo
+     */
+    @Transactional(readOnly = true)
+    public List<PersonalRecordDTO> findSummaryByUser(Long userId) {
+        return executeQuery(FIND_SUMMARY_BY_USER, USER_ID.bind(userId));
+    }
+
+    /**
+     * Remove os recordes do usuário com um único DELETE
+     * @param userId ID do usuário
+     * @return Número de recordes removidos
+     */
+    public int deleteByUser(Long userId) {
+        return deleteWhere((root, cb) -> cb.equal(root.get("user").get("id"), userId));
+    }
+
+    /**
+     * Remove os recordes dos usuários com um único DELETE
+     * @param userIds IDs dos usuários
+     * @return Número de recordes removidos
+     */
+    public int deleteByUsers(Collection<Long> userIds) {
+        return deleteWhere((root, cb) -> root.get("user").get("id").in(userIds));
+    }
+}
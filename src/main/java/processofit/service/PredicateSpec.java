@@ -0,0 +1,17 @@
+package processofit.service;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Condição de filtro montada com a Criteria API
+ * Usada pelas operações em massa e consultas filtradas do GenericCrudService
+ *
+ * @param <T> Tipo da entidade
+ */
+@FunctionalInterface
+public interface PredicateSpec<T> {
+
+    Predicate toPredicate(Root<T> root, CriteriaBuilder cb);
+}
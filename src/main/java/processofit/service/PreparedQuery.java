@@ -0,0 +1,27 @@
+package processofit.service;
+
+/**
+ * Consulta JPQL nomeada e tipada, registrada uma única vez na inicialização
+ * Uma JPQL inválida impede a aplicação de subir
+ *
+ * @param name Nome único da consulta (ex.: "User.findByEmail")
+ * @param jpql Consulta JPQL
+ * @param resultType Tipo de cada linha do resultado
+ * @param cacheable Se o resultado vai para o cache de consultas do Hibernate
+ * @param <R> Tipo do resultado
+ */
+public record PreparedQuery<R>(String name, String jpql, Class<R> resultType, boolean cacheable) {
+
+    public static <R> PreparedQuery<R> of(String name, Class<R> resultType, String jpql) {
+        return new PreparedQuery<>(name, jpql, resultType, false);
+    }
+
+    /**
+     * Versão da consulta com resultado no cache de consultas
+     * Invalidado pelo Hibernate a cada escrita nas tabelas consultadas
+     * @return Consulta cacheável
+     */
+    public PreparedQuery<R> cached() {
+        return new PreparedQuery<>(name, jpql, resultType, true);
+    }
+}
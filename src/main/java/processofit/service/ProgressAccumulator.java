@@ -0,0 +1,112 @@
+package processofit.service;
+
+import processofit.model.user.User;
+import processofit.model.workout.Exercise;
+import processofit.model.workout.PersonalRecord;
+import processofit.model.workout.PersonalRecordType;
+import processofit.model.workout.ProgressRollup;
+import processofit.model.workout.RollupPeriod;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Aplica séries, em ordem cronológica, aos agregados e recordes de um usuário
+ * Linhas que ainda não existem são criadas e adicionadas às listas de novas
+ */
+class ProgressAccumulator {
+
+    private final User user;
+    private final Function<Long, Exercise> exercises;
+    private final List<ProgressRollup> createdRollups;
+    private final List<PersonalRecord> createdRecords;
+    private final Map<RollupKey, ProgressRollup> rollups = new HashMap<>();
+    private final Map<RecordKey, PersonalRecord> records = new HashMap<>();
+
+    /**
+     * @param user Usuário dono das séries (uma referência basta)
+     * @param exercises Referência do exercício pelo ID
+     * @param createdRollups Recebe os agregados criados
+     * @param createdRecords Recebe os recordes criados
+     */
+    ProgressAccumulator(User user, Function<Long, Exercise> exercises,
+                        List<ProgressRollup> createdRollups, List<PersonalRecord> createdRecords) {
+        this.user = user;
+        this.exercises = exercises;
+        this.createdRollups = createdRollups;
+        this.createdRecords = createdRecords;
+    }
+
+    void load(ProgressRollup rollup) {
+        rollups.put(new RollupKey(rollup.getExercise().getId(), rollup.getPeriod(), rollup.getPeriodStart()), rollup);
+    }
+
+    void load(PersonalRecord record) {
+        records.put(new RecordKey(record.getExercise().getId(), record.getType()), record);
+    }
+
+    void add(WorkoutSetFact fact) {
+        // O agregado diário ainda não existir indica o primeiro treino do exercício no dia
+        boolean newSession = false;
+        for (RollupPeriod period : RollupPeriod.values()) {
+            RollupKey key = new RollupKey(fact.exerciseId(), period, period.start(fact.date()));
+            ProgressRollup rollup = rollups.get(key);
+            if (rollup == null) {
+                rollup = new ProgressRollup(user, exercises.apply(fact.exerciseId()), period, key.periodStart());
+                rollups.put(key, rollup);
+                createdRollups.add(rollup);
+                newSession |= period == RollupPeriod.DAY;
+            }
+            addTo(rollup, fact, newSession);
+        }
+
+        updateRecord(fact, PersonalRecordType.MAX_LOAD, fact.loadKg());
+        updateRecord(fact, PersonalRecordType.ESTIMATED_ONE_REP_MAX, fact.estimatedOneRepMax());
+        updateRecord(fact, PersonalRecordType.MAX_SET_VOLUME, fact.volume() > 0 ? fact.volume() : null);
+    }
+
+    private void addTo(ProgressRollup rollup, WorkoutSetFact fact, boolean newSession) {
+        rollup.setSetCount(rollup.getSetCount() + 1);
+        rollup.setTotalReps(rollup.getTotalReps() + (fact.reps() == null ? 0 : fact.reps()));
+        rollup.setTotalVolume(rollup.getTotalVolume() + fact.volume());
+        rollup.setMaxLoadKg(max(rollup.getMaxLoadKg(), fact.loadKg()));
+        rollup.setEstimatedOneRepMax(max(rollup.getEstimatedOneRepMax(), fact.estimatedOneRepMax()));
+        if (newSession) {
+            rollup.setSessionCount(rollup.getSessionCount() + 1);
+        }
+    }
+
+    private void updateRecord(WorkoutSetFact fact, PersonalRecordType type, Double value) {
+        if (value == null) {
+            return;
+        }
+        RecordKey key = new RecordKey(fact.exerciseId(), type);
+        PersonalRecord record = records.get(key);
+        if (record == null) {
+            record = new PersonalRecord(user, exercises.apply(fact.exerciseId()), type);
+            records.put(key, record);
+            createdRecords.add(record);
+        } else if (value <= record.getValue()) {
+            return;
+        }
+        record.setValue(value);
+        record.setAchievedOn(fact.date());
+        record.setWorkoutSetId(fact.workoutSetId());
+    }
+
+    private static Double max(Double current, Double candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate > current ? candidate : current;
+    }
+
+    private record RollupKey(Long exerciseId, RollupPeriod period, LocalDate periodStart) {
+    }
+
+    private record RecordKey(Long exerciseId, PersonalRecordType type) {
+    }
+}
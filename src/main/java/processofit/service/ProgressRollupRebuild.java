@@ -0,0 +1,111 @@
+package processofit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recalcula os agregados de evolução de todos os usuários, em paralelo
+ * Cada usuário é recalculado em sua própria transação; a gravação de séries do mesmo usuário
+ * espera o recálculo terminar (ver ProgressRollupService.lockUsers)
+ */
+@Slf4j
+@Component
+public class ProgressRollupRebuild {
+
+    /**
+     * Usuários recalculados ao mesmo tempo; cada um ocupa uma conexão durante toda a sua transação
+     */
+    @Value("${app.rollup.rebuild.parallelism:2}")
+    private int parallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Autowired
+    private ProgressRollupService rollupService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Inicia o recálculo em segundo plano
+     * @return false se já houver um recálculo em andamento
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rollup-rebuild-");
+        threadFactory.setDaemon(true);
+        threadFactory.newThread(() -> {
+            try {
+                rebuildAll();
+            } catch (RuntimeException e) {
+                log.error("Erro no recálculo dos agregados de evolução", e);
+            } finally {
+                running.set(false);
+            }
+        }).start();
+        return true;
+    }
+
+    /**
+     * @return true enquanto um recálculo estiver em andamento
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void rebuildAll() {
+        long startedAt = System.nanoTime();
+        List<Long> userIds = rollupService.findUsersWithWorkouts();
+        int threads = threads();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("rollup-rebuild-worker-"));
+        try {
+            List<Future<Long>> results = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                results.add(executor.submit(() -> rollupService.rebuild(userId)));
+            }
+
+            long sets = 0;
+            int failures = 0;
+            for (Future<Long> result : results) {
+                try {
+                    sets += result.get();
+                } catch (ExecutionException e) {
+                    failures++;
+                    log.warn("Falha no recálculo: {}", e.getCause().getMessage());
+                }
+            }
+            log.info("Agregados de evolução recalculados: {} usuários, {} séries, {} falhas em {} ms",
+                    userIds.size(), sets, failures, (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * No máximo metade do pool de conexões: o restante fica para as requisições e a ingestão
+     */
+    private int threads() {
+        int limit = Math.max(1, maximumPoolSize / 2);
+        if (parallelism > limit) {
+            log.warn("app.rollup.rebuild.parallelism={} reduzido para {} (metade do pool de {} conexões)",
+                    parallelism, limit, maximumPoolSize);
+        }
+        return Math.clamp(parallelism, 1, limit);
+    }
+}
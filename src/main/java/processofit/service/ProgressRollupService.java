@@ -0,0 +1,199 @@
+package processofit.service;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import processofit.model.user.User;
+import processofit.model.workout.Exercise;
+import processofit.model.workout.PersonalRecord;
+import processofit.model.workout.ProgressRollup;
+import processofit.model.workout.RollupPeriod;
+import processofit.model.workout.dto.ProgressRollupDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Agregados diários, semanais e mensais de evolução por usuário e exercício, e os recordes pessoais
+ * Atualizados na mesma transação que grava as séries; os relatórios leem só as linhas do período pedido
+ */
+@Service
+public class ProgressRollupService extends GenericCrudService<ProgressRollup, Long> {
+
+    private static final QueryParameter<Long> USER_ID = QueryParameter.of("userId", Long.class);
+    private static final QueryParameter<Long> EXERCISE_ID = QueryParameter.of("exerciseId", Long.class);
+    private static final QueryParameter<RollupPeriod> PERIOD = QueryParameter.of("period", RollupPeriod.class);
+    private static final QueryParameter<LocalDate> FROM = QueryParameter.of("from", LocalDate.class);
+    private static final QueryParameter<LocalDate> TO = QueryParameter.of("to", LocalDate.class);
+
+    private static final int SET_STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Lock consultivo por usuário, liberado no fim da transação; a chave é o próprio ID do usuário
+     * (nenhum outro lock consultivo é usado pela aplicação)
+     */
+    private static final String LOCK_USER_SQL = "SELECT 1 FROM pg_advisory_xact_lock(:userId)";
+
+    private static final PreparedQuery<ProgressRollup> FIND_BY_USER_AND_RANGE = PreparedQuery.of(
+            "ProgressRollup.findByUserAndRange", ProgressRollup.class,
+            "SELECT r FROM ProgressRollup r WHERE r.user.id = :userId AND r.periodStart BETWEEN :from AND :to");
+    private static final PreparedQuery<ProgressRollupDTO> FIND_PROGRESS = PreparedQuery.of(
+            "ProgressRollup.findProgress", ProgressRollupDTO.class,
+            "SELECT new " + ProgressRollupDTO.class.getName() + "(r.periodStart, r.totalVolume, r.totalReps, "
+                    + "r.setCount, r.sessionCount, r.maxLoadKg, r.estimatedOneRepMax) FROM ProgressRollup r "
+                    + "WHERE r.user.id = :userId AND r.exercise.id = :exerciseId AND r.period = :period "
+                    + "AND r.periodStart BETWEEN :from AND :to ORDER BY r.periodStart");
+    private static final PreparedQuery<WorkoutSetFact> FIND_SETS_BY_USER = PreparedQuery.of(
+            "ProgressRollup.findSetsByUser", WorkoutSetFact.class,
+            "SELECT new " + WorkoutSetFact.class.getName() + "(se.user.id, s.exercise.id, se.date, s.reps, s.loadKg, s.id) "
+                    + "FROM WorkoutSet s JOIN s.session se WHERE se.user.id = :userId ORDER BY se.date, s.id");
+    private static final PreparedQuery<Long> FIND_USERS_WITH_WORKOUTS = PreparedQuery.of(
+            "ProgressRollup.findUsersWithWorkouts", Long.class,
+            "SELECT DISTINCT s.user.id FROM WorkoutSession s");
+    private static final PreparedQuery<User> LOCK_USERS = PreparedQuery.of(
+            "ProgressRollup.lockUsers", User.class,
+            "SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id");
+
+    @Autowired
+    private PersonalRecordService recordService;
+
+    @Override
+    protected List<PreparedQuery<?>> queries() {
+        return List.of(FIND_BY_USER_AND_RANGE, FIND_PROGRESS, FIND_SETS_BY_USER, FIND_USERS_WITH_WORKOUTS, LOCK_USERS);
+    }
+
+    /**
+     * Bloqueia a evolução dos usuários até o fim da transação, sempre na ordem do ID
+     * Serializa a gravação de séries e o recálculo dos agregados de um mesmo usuário
+     * No PostgreSQL usa locks consultivos, sem tocar nas linhas de users (cadastro, login e
+     * atualizações do usuário não esperam pela ingestão); nos demais bancos bloqueia as linhas
+     * @param userIds IDs dos usuários
+     */
+    public void lockUsers(Collection<Long> userIds) {
+        execute("lockUsers", "Erro ao bloquear usuários", () -> {
+            if (!isPostgreSQL()) {
+                return getEntityManager()
+                        .createNamedQuery(LOCK_USERS.name(), User.class)
+                        .setParameter("ids", userIds)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList();
+            }
+            Query lock = getEntityManager().createNativeQuery(LOCK_USER_SQL);
+            userIds.stream()
+                    .distinct()
+                    .sorted()
+                    .forEach(userId -> lock.setParameter("userId", userId).getSingleResult());
+            return null;
+        });
+    }
+
+    /**
+     * Soma séries recém-gravadas aos agregados e recordes dos seus usuários
+     * Só lê as linhas dos períodos tocados pelas séries; o chamador deve ter bloqueado os usuários
+     * @param facts Séries gravadas
+     */
+    public void apply(List<WorkoutSetFact> facts) {
+        execute("apply", "Erro ao atualizar a evolução", () -> {
+            List<ProgressRollup> createdRollups = new ArrayList<>();
+            List<PersonalRecord> createdRecords = new ArrayList<>();
+
+            Map<Long, List<WorkoutSetFact>> byUser = facts.stream()
+                    .collect(Collectors.groupingBy(WorkoutSetFact::userId));
+            byUser.forEach((userId, userFacts) -> {
+                LocalDate first = userFacts.stream().map(WorkoutSetFact::date).min(Comparator.naturalOrder()).orElseThrow();
+                LocalDate last = userFacts.stream().map(WorkoutSetFact::date).max(Comparator.naturalOrder()).orElseThrow();
+                // A semana da primeira data pode começar no mês anterior
+                LocalDate from = RollupPeriod.WEEK.start(first).isBefore(RollupPeriod.MONTH.start(first))
+                        ? RollupPeriod.WEEK.start(first)
+                        : RollupPeriod.MONTH.start(first);
+
+                ProgressAccumulator accumulator = accumulator(userId, createdRollups, createdRecords);
+                executeQuery(FIND_BY_USER_AND_RANGE, USER_ID.bind(userId), FROM.bind(from), TO.bind(last))
+                        .forEach(accumulator::load);
+                recordService.findByUser(userId).forEach(accumulator::load);
+                userFacts.stream()
+                        .sorted(Comparator.comparing(WorkoutSetFact::date).thenComparing(WorkoutSetFact::workoutSetId))
+                        .forEach(accumulator::add);
+            });
+
+            // Um flush envia as alterações dos agregados existentes e os novos em batch
+            saveAll(createdRollups);
+            recordService.saveAll(createdRecords);
+            return null;
+        });
+    }
+
+    /**
+     * Remove os agregados e recordes dos usuários, com os usuários bloqueados
+     * para não concorrer com a gravação de séries e o recálculo
+     * @param userIds IDs dos usuários
+     */
+    public void deleteByUsers(Collection<Long> userIds) {
+        execute("deleteByUsers", "Erro ao remover a evolução dos usuários", () -> {
+            lockUsers(userIds);
+            deleteWhere((root, cb) -> root.get("user").get("id").in(userIds));
+            recordService.deleteByUsers(userIds);
+            return null;
+        });
+    }
+
+    /**
+     * Recalcula do zero os agregados e recordes de um usuário a partir das suas séries
+     * @param userId ID do usuário
+     * @return Número de séries processadas
+     */
+    public long rebuild(Long userId) {
+        return execute("rebuild", "Erro ao recalcular a evolução do usuário " + userId, () -> {
+            lockUsers(List.of(userId));
+            deleteWhere((root, cb) -> cb.equal(root.get("user").get("id"), userId));
+            recordService.deleteByUser(userId);
+
+            List<ProgressRollup> createdRollups = new ArrayList<>();
+            List<PersonalRecord> createdRecords = new ArrayList<>();
+            ProgressAccumulator accumulator = accumulator(userId, createdRollups, createdRecords);
+            long sets = streamQuery(FIND_SETS_BY_USER, SET_STREAM_FETCH_SIZE, accumulator::add, USER_ID.bind(userId));
+
+            saveAll(createdRollups);
+            recordService.saveAll(createdRecords);
+            return sets;
+        });
+    }
+
+    /**
+     * @return IDs dos usuários com ao menos um treino
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findUsersWithWorkouts() {
+        return executeQuery(FIND_USERS_WITH_WORKOUTS);
+    }
+
+    /**
+     * Evolução de um exercício em períodos, lida dos agregados
+     * @param userId ID do usuário
+     * @param exerciseId ID do exercício
+     * @param period Granularidade
+     * @param from Data inicial; o período que a contém é incluído
+     * @param to Data final (inclusiva)
+     * @return Um agregado por período com treino, em ordem cronológica
+     */
+    @Transactional(readOnly = true)
+    public List<ProgressRollupDTO> findProgress(Long userId, Long exerciseId, RollupPeriod period,
+                                                LocalDate from, LocalDate to) {
+        return executeQuery(FIND_PROGRESS, USER_ID.bind(userId), EXERCISE_ID.bind(exerciseId),
+                PERIOD.bind(period), FROM.bind(period.start(from)), TO.bind(to));
+    }
+
+    private ProgressAccumulator accumulator(Long userId, List<ProgressRollup> createdRollups,
+                                            List<PersonalRecord> createdRecords) {
+        return new ProgressAccumulator(getEntityManager().getReference(User.class, userId),
+                exerciseId -> getEntityManager().getReference(Exercise.class, exerciseId),
+                createdRollups, createdRecords);
+    }
+}
@@ -0,0 +1,28 @@
+package processofit.service;
+
+/**
+ * Parâmetro nomeado e tipado de uma PreparedQuery
+ * O valor só pode ser associado pelo bind, com o tipo declarado
+ *
+ * @param name Nome do parâmetro na JPQL
+ * @param type Tipo do valor
+ * @param <V> Tipo do valor
+ */
+public record QueryParameter<V>(String name, Class<V> type) {
+
+    public static <V> QueryParameter<V> of(String name, Class<V> type) {
+        return new QueryParameter<>(name, type);
+    }
+
+    /**
+     * Associa um valor ao parâmetro
+     * @param value Valor do parâmetro
+     * @return Associação a ser passada para a execução da consulta
+     */
+    public Binding<V> bind(V value) {
+        return new Binding<>(this, value);
+    }
+
+    public record Binding<V>(QueryParameter<V> parameter, V value) {
+    }
+}
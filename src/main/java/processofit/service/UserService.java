@@ -1,14 +1,256 @@
 package processofit.service;
 
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.Query;
+import processofit.infra.persistence.AfterCommit;
+import processofit.infra.security.PrincipalCache;
 import processofit.model.user.User;
+import processofit.model.user.dto.UserSummaryDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 @Service
 public class UserService extends GenericCrudService<User, Long> {
 
+    private static final QueryParameter<String> EMAIL = QueryParameter.of("email", String.class);
+    private static final QueryParameter<String> NAME_PATTERN = QueryParameter.of("pattern", String.class);
+    private static final QueryParameter<String> NAME_PREFIX = QueryParameter.of("prefix", String.class);
+    private static final QueryParameter<String> NAME_TERM = QueryParameter.of("term", String.class);
+
+    /**
+     * Limite de resultados da busca por nome
+     */
+    public static final int SEARCH_MAX_LIMIT = 100;
+
+    private static final int EMAIL_STREAM_FETCH_SIZE = 5000;
+
+    /**
+     * Usuários por DELETE dos dados de treino, para manter o IN dentro do limite de parâmetros
+     */
+    private static final int WORKOUT_DELETE_CHUNK = 1000;
+
+    /**
+     * Termos menores que um trigrama só usam o índice de prefixo
+     */
+    private static final int TRIGRAM_MIN_LENGTH = 3;
+
+    /**
+     * Busca no PostgreSQL: substring e similaridade servidas pelo índice de trigramas,
+     * prefixo pelo índice text_pattern_ops (ver schema-postgresql.sql)
+     * Ordem: nome exato, prefixo, similaridade
+     */
+    private static final String SEARCH_BY_NAME_SQL = """
+            SELECT u.* FROM users u
+            WHERE lower(u.name) LIKE :pattern ESCAPE '!' OR lower(u.name) % :term
+            ORDER BY CASE WHEN lower(u.name) = :term THEN 0
+                          WHEN lower(u.name) LIKE :prefix ESCAPE '!' THEN 1
+                          ELSE 2 END,
+                     similarity(lower(u.name), :term) DESC, u.id
+            LIMIT :limit
+            """;
+
+    private static final String SEARCH_BY_PREFIX_SQL = """
+            SELECT u.* FROM users u
+            WHERE lower(u.name) LIKE :prefix ESCAPE '!'
+            ORDER BY CASE WHEN lower(u.name) = :term THEN 0 ELSE 1 END, length(u.name), u.id
+            LIMIT :limit
+            """;
+
+    private static final PreparedQuery<User> FIND_BY_EMAIL = PreparedQuery.of("User.findByEmail", User.class,
+            "SELECT u FROM User u WHERE u.email = :email").cached();
+    private static final PreparedQuery<User> FIND_BY_NAME_CONTAINING = PreparedQuery.of("User.findByNameContaining", User.class,
+            "SELECT u FROM User u WHERE LOWER(u.name) LIKE :pattern ESCAPE '!'");
+    private static final PreparedQuery<User> SEARCH_BY_NAME = PreparedQuery.of("User.searchByName", User.class,
+            "SELECT u FROM User u WHERE LOWER(u.name) LIKE :pattern ESCAPE '!' "
+                    + "ORDER BY CASE WHEN LOWER(u.name) = :term THEN 0 WHEN LOWER(u.name) LIKE :prefix ESCAPE '!' THEN 1 ELSE 2 END, "
+                    + "LENGTH(u.name), u.id");
+    private static final PreparedQuery<Long> COUNT_BY_EMAIL = PreparedQuery.of("User.countByEmail", Long.class,
+            "SELECT COUNT(u) FROM User u WHERE u.email = :email").cached();
+    private static final PreparedQuery<String> FIND_ALL_EMAILS = PreparedQuery.of("User.findAllEmails", String.class,
+            "SELECT u.email FROM User u");
+    private static final PreparedQuery<User> FIND_ALL_ORDER_BY_NAME = PreparedQuery.of("User.findAllOrderByName", User.class,
+            "SELECT u FROM User u ORDER BY u.name ASC");
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private EmailExistenceFilter emailFilter;
+
+    @Autowired
+    private ProgressRollupService rollupService;
+
+    @Autowired
+    private WorkoutSetService workoutSetService;
+
+    @Autowired
+    private WorkoutSessionService sessionService;
+
+    @Override
+    protected List<PreparedQuery<?>> queries() {
+        return List.of(FIND_BY_EMAIL, FIND_BY_NAME_CONTAINING, SEARCH_BY_NAME, COUNT_BY_EMAIL, FIND_ALL_EMAILS, FIND_ALL_ORDER_BY_NAME);
+    }
+
+    @Override
+    protected List<Class<? extends Record>> projections() {
+        return List.of(UserSummaryDTO.class);
+    }
+
+    /**
+     * Carrega o filtro de emails percorrendo a tabela uma vez
+     * Até terminar, as verificações de email continuam indo ao banco
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void buildEmailFilter() {
+        rebuildEmailFilter();
+    }
+
+    /**
+     * Reconstrói o filtro de emails quando marcado por uma alteração em massa ou
+     * após app.email-filter.rebuild-interval, incorporando emails gravados por outras instâncias
+     * Transação de escrita para ler do primário, não de uma réplica atrasada
+     */
+    @Scheduled(fixedDelayString = "${app.email-filter.check-interval:PT1M}")
+    @Transactional
+    public void rebuildEmailFilterIfNeeded() {
+        if (emailFilter.needsRebuild()) {
+            rebuildEmailFilter();
+        }
+    }
+
+    /**
+     * Salva um novo usuário e invalida o principal em cache para o email
+     * @param user Usuário a ser salvo
+     * @return Usuário salvo com ID gerado
+     */
+    @Override
+    public User save(User user) {
+        emailFilter.add(user.getEmail());
+        User saved = super.save(user);
+        principalCache.evict(saved.getEmail());
+        return saved;
+    }
+
+    /**
+     * Atualiza o usuário e invalida o principal em cache
+     * @param user Usuário a ser atualizado
+     * @return Usuário atualizado
+     */
+    @Override
+    public User update(User user) {
+        emailFilter.add(user.getEmail());
+        User updated = super.update(user);
+        principalCache.evictUser(updated.getId());
+        return updated;
+    }
+
+    /**
+     * Salva usuários em lote, registrando os emails no filtro
+     * @param users Usuários a serem salvos
+     * @param chunkSize Número de usuários por lote
+     * @return Usuários salvos
+     */
+    @Override
+    public List<User> saveAll(Collection<User> users, int chunkSize) {
+        users.forEach(user -> emailFilter.add(user.getEmail()));
+        return super.saveAll(users, chunkSize);
+    }
+
+    /**
+     * Atualiza usuários em lote e esvazia o cache de principais
+     * @param users Usuários a serem atualizados
+     * @param chunkSize Número de usuários por lote
+     * @return Usuários atualizados
+     */
+    @Override
+    public List<User> updateAll(Collection<User> users, int chunkSize) {
+        users.forEach(user -> emailFilter.add(user.getEmail()));
+        List<User> updated = super.updateAll(users, chunkSize);
+        principalCache.evictAll();
+        return updated;
+    }
+
+    /**
+     * Salva ou atualiza o usuário e invalida o principal em cache
+     * @param user Usuário a ser salvo/atualizado
+     * @return Usuário processado
+     */
+    @Override
+    public User saveOrUpdate(User user) {
+        emailFilter.add(user.getEmail());
+        User merged = super.saveOrUpdate(user);
+        principalCache.evictUser(merged.getId());
+        return merged;
+    }
+
+    /**
+     * Remove o usuário pelo ID e invalida o principal em cache
+     * @param id ID do usuário
+     * @return true se o usuário foi removido
+     */
+    @Override
+    public boolean deleteById(Long id) {
+        boolean deleted = super.deleteById(id);
+        if (deleted) {
+            principalCache.evictUser(id);
+        }
+        return deleted;
+    }
+
+    /**
+     * Remove o usuário e invalida o principal em cache
+     * @param user Usuário a ser removido
+     */
+    @Override
+    public void delete(User user) {
+        super.delete(user);
+        principalCache.evictUser(user.getId());
+    }
+
+    /**
+     * Remove os usuários que atendem à condição com um único DELETE, depois dos seus dados de treino
+     * @param where Condição de remoção, ou null para remover todos
+     * @return Número de usuários removidos
+     */
+    @Override
+    public int deleteWhere(PredicateSpec<User> where) {
+        beforeDelete(findIds(where));
+        return super.deleteWhere(where);
+    }
+
+    /**
+     * As chaves estrangeiras dos dados de treino para users não têm cascata:
+     * agregados, recordes, séries e treinos saem antes do usuário, na mesma transação
+     */
+    @Override
+    protected void beforeDelete(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += WORKOUT_DELETE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + WORKOUT_DELETE_CHUNK, ids.size()));
+            rollupService.deleteByUsers(chunk);
+            workoutSetService.deleteByUsers(chunk);
+            sessionService.deleteByUsers(chunk);
+        }
+    }
+
+    /**
+     * Operações em massa podem alterar qualquer usuário: esvazia o cache de principais
+     */
+    @Override
+    protected void afterBulkChange() {
+        principalCache.evictAll();
+        AfterCommit.run(emailFilter::markStale);
+    }
+
     /**
      * Busca usuário por email
      * @param email Email do usuário
@@ -16,45 +258,120 @@ public class UserService extends GenericCrudService<User, Long> {
      */
     @Transactional(readOnly = true)
     public User findByEmail(String email) {
-        String jpql = "SELECT u FROM User u WHERE u.email = :email";
-        List<User> users = executeQuery(jpql, "email", email);
-        return users.isEmpty() ? null : users.get(0);
+        return executeFirst(FIND_BY_EMAIL, EMAIL.bind(email)).orElse(null);
     }
 
     /**
      * Busca usuários por nome (busca parcial, case insensitive)
+     * Só nomes que contêm o termo, em qualquer banco; no PostgreSQL o LIKE '%termo%' usa o índice
+     * de trigramas. Para resultados ranqueados e nomes parecidos, ver searchByName
      * @param name Nome ou parte do nome
      * @return Lista de usuários encontrados
      */
     @Transactional(readOnly = true)
     public List<User> findByNameContaining(String name) {
-        String jpql = "SELECT u FROM User u WHERE LOWER(u.name) LIKE LOWER(:name)";
-        return executeQuery(jpql, "name", "%" + name + "%");
+        String term = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        return executeQuery(FIND_BY_NAME_CONTAINING, NAME_PATTERN.bind("%" + escapeLike(term) + "%"));
+    }
+
+    /**
+     * Busca usuários por prefixo ou trecho do nome, case insensitive, com ranking:
+     * nome exato, depois prefixo, depois similaridade (ou tamanho do nome fora do PostgreSQL)
+     * Só no PostgreSQL a busca é aproximada: com termos de 3 ou mais caracteres também retorna nomes
+     * parecidos que não contêm o termo (similaridade de trigramas, operador %); nos demais bancos
+     * retorna só prefixo e trecho
+     * @param name Termo de busca
+     * @param limit Número máximo de resultados (até SEARCH_MAX_LIMIT)
+     * @return Usuários encontrados, em ordem de relevância
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<User> searchByName(String name, int limit) {
+        String term = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+        int maxResults = Math.clamp(limit, 1, SEARCH_MAX_LIMIT);
+        String escaped = escapeLike(term);
+
+        if (!isPostgreSQL()) {
+            return executeQuery(SEARCH_BY_NAME, maxResults,
+                    NAME_PATTERN.bind("%" + escaped + "%"),
+                    NAME_PREFIX.bind(escaped + "%"),
+                    NAME_TERM.bind(term));
+        }
+
+        boolean prefixOnly = term.length() < TRIGRAM_MIN_LENGTH;
+        return execute("searchByName", "Erro ao buscar usuários por nome", () -> {
+            Query query = getEntityManager()
+                    .createNativeQuery(prefixOnly ? SEARCH_BY_PREFIX_SQL : SEARCH_BY_NAME_SQL, User.class)
+                    .setParameter(NAME_PREFIX.name(), escaped + "%")
+                    .setParameter(NAME_TERM.name(), term)
+                    .setParameter("limit", maxResults);
+            if (!prefixOnly) {
+                query.setParameter(NAME_PATTERN.name(), "%" + escaped + "%");
+            }
+            return (List<User>) query.getResultList();
+        });
     }
 
     /**
      * Verifica se já existe um usuário com o email informado
+     * Pré-verificação de duplicidade: um "não" do filtro de Bloom dispensa o banco e pode, raramente,
+     * ser um falso negativo até a próxima reconstrução; a constraint única barra o insert nesse caso
      * @param email Email a ser verificado
      * @return true se o email já está em uso
      */
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
-        String jpql = "SELECT COUNT(u) FROM User u WHERE u.email = :email";
-        Long count = getEntityManager()
-                .createQuery(jpql, Long.class)
-                .setParameter("email", email)
-                .getSingleResult();
-        return count > 0;
+        if (!emailFilter.mightContain(email)) {
+            return false;
+        }
+        return executeFirst(COUNT_BY_EMAIL, EMAIL.bind(email)).orElse(0L) > 0;
+    }
+
+    /**
+     * Verifica se o email já pertence a outro usuário, antes de atribuí-lo ao usuário informado
+     * Como em existsByEmail, um "não" do filtro de emails dispensa o banco; só um possível
+     * positivo busca o dono do email
+     * @param email Email a ser verificado
+     * @param id ID do usuário que vai usar o email
+     * @return true se outro usuário já usa o email
+     */
+    @Transactional(readOnly = true)
+    public boolean isEmailInUseByOther(String email, Long id) {
+        if (!emailFilter.mightContain(email)) {
+            return false;
+        }
+        User owner = findByEmail(email);
+        return owner != null && !owner.getId().equals(id);
     }
 
     /**
      * Atualiza apenas o nome do usuário
      * @param id ID do usuário
      * @param newName Novo nome
-     * @return Usuário atualizado ou null se não encontrado
+     * @return Usuário atualizado
+     * @throws EntityNotFoundException se o usuário não existir
      */
     public User updateUserName(Long id, String newName) {
+        return updateUserName(id, newName, null);
+    }
+
+    /**
+     * Atualiza apenas o nome do usuário, se ele ainda estiver na versão esperada
+     * O usuário vem do cache de segundo nível e o flush envia um UPDATE só do nome e da versão
+     * (@DynamicUpdate), condicionado à versão lida; a entrada do cache é atualizada, não descartada
+     * @param id ID do usuário
+     * @param newName Novo nome
+     * @param expectedVersion Versão esperada (If-Match), ou null para não verificar
+     * @return Usuário atualizado
+     * @throws EntityNotFoundException se o usuário não existir
+     * @throws OptimisticLockException se o usuário já estiver em outra versão
+     */
+    public User updateUserName(Long id, String newName, Long expectedVersion) {
         User user = findByIdOrThrow(id);
+        checkVersion(user, expectedVersion);
         user.setName(newName);
         return update(user);
     }
@@ -67,11 +384,27 @@ public class UserService extends GenericCrudService<User, Long> {
      * @throws RuntimeException se o email já estiver em uso
      */
     public User updateUserEmail(Long id, String newEmail) {
+        return updateUserEmail(id, newEmail, null);
+    }
+
+    /**
+     * Atualiza apenas o email do usuário, se ele ainda estiver na versão esperada
+     * Como em updateUserName, um único UPDATE do email e da versão, com o cache de segundo nível atualizado
+     * A verificação de email em uso só vai ao banco quando o filtro de emails não a descarta
+     * (isEmailInUseByOther); a constraint única de users.email continua valendo
+     * @param id ID do usuário
+     * @param newEmail Novo email
+     * @param expectedVersion Versão esperada (If-Match), ou null para não verificar
+     * @return Usuário atualizado
+     * @throws RuntimeException se o email já estiver em uso
+     * @throws EntityNotFoundException se o usuário não existir
+     * @throws OptimisticLockException se o usuário já estiver em outra versão
+     */
+    public User updateUserEmail(Long id, String newEmail, Long expectedVersion) {
         User user = findByIdOrThrow(id);
+        checkVersion(user, expectedVersion);
 
-        // Verifica se o email não está sendo usado por outro usuário
-        User existingUser = findByEmail(newEmail);
-        if (existingUser != null && !existingUser.getId().equals(id)) {
+        if (isEmailInUseByOther(newEmail, id)) {
             throw new RuntimeException("Email já está em uso por outro usuário");
         }
 
@@ -79,14 +412,35 @@ public class UserService extends GenericCrudService<User, Long> {
         return update(user);
     }
 
+    private static void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new OptimisticLockException("Usuário " + user.getId() + " foi alterado por outra requisição");
+        }
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     /**
      * Lista usuários ordenados por nome
      * @return Lista de usuários ordenada por nome
      */
     @Transactional(readOnly = true)
     public List<User> findAllOrderByName() {
-        String jpql = "SELECT u FROM User u ORDER BY u.name ASC";
-        return executeQuery(jpql);
+        return executeQuery(FIND_ALL_ORDER_BY_NAME);
     }
-}
 
+    private void rebuildEmailFilter() {
+        if (!emailFilter.startBuild(count(CountMode.EXACT))) {
+            return;
+        }
+        try {
+            streamQuery(FIND_ALL_EMAILS, EMAIL_STREAM_FETCH_SIZE, emailFilter::load);
+            emailFilter.finishBuild();
+        } catch (RuntimeException e) {
+            emailFilter.abortBuild();
+            throw e;
+        }
+    }
+}
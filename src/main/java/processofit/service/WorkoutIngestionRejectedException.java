@@ -0,0 +1,12 @@
+package processofit.service;
+
+/**
+ * Lançada quando a fila de ingestão de séries está cheia
+ * O lote pode ser reenviado pelo cliente após alguns instantes
+ */
+public class WorkoutIngestionRejectedException extends RuntimeException {
+
+    public WorkoutIngestionRejectedException(String message) {
+        super(message);
+    }
+}
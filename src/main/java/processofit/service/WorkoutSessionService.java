@@ -0,0 +1,47 @@
+package processofit.service;
+
+import processofit.model.workout.WorkoutSession;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class WorkoutSessionService extends GenericCrudService<WorkoutSession, Long> {
+
+    private static final QueryParameter<Long> USER_ID = QueryParameter.of("userId", Long.class);
+    private static final QueryParameter<LocalDate> FROM = QueryParameter.of("from", LocalDate.class);
+    private static final QueryParameter<LocalDate> TO = QueryParameter.of("to", LocalDate.class);
+
+    private static final PreparedQuery<WorkoutSession> FIND_BY_USER_AND_PERIOD = PreparedQuery.of(
+            "WorkoutSession.findByUserAndPeriod", WorkoutSession.class,
+            "SELECT s FROM WorkoutSession s WHERE s.user.id = :userId AND s.date BETWEEN :from AND :to ORDER BY s.date");
+
+    @Override
+    protected List<PreparedQuery<?>> queries() {
+        return List.of(FIND_BY_USER_AND_PERIOD);
+    }
+
+    /**
+     * Busca os treinos do usuário no período, em ordem de data
+     * @param userId ID do usuário
+     * @param from Data inicial (inclusiva)
+     * @param to Data final (inclusiva)
+     * @return Treinos do período
+     */
+    @Transactional(readOnly = true)
+    public List<WorkoutSession> findByUser(Long userId, LocalDate from, LocalDate to) {
+        return executeQuery(FIND_BY_USER_AND_PERIOD, USER_ID.bind(userId), FROM.bind(from), TO.bind(to));
+    }
+
+    /**
+     * Remove os treinos dos usuários com um único DELETE; as séries devem ter sido removidas antes
+     * @param userIds IDs dos usuários
+     * @return Número de treinos removidos
+     */
+    public int deleteByUsers(Collection<Long> userIds) {
+        return deleteWhere((root, cb) -> root.get("user").get("id").in(userIds));
+    }
+}
@@ -0,0 +1,28 @@
+package processofit.service;
+
+import java.time.LocalDate;
+
+/**
+ * Dados de uma série usados pelos agregados de evolução, sem carregar as entidades
+ */
+public record WorkoutSetFact(Long userId, Long exerciseId, LocalDate date, Integer reps, Double loadKg,
+                             Long workoutSetId) {
+
+    /**
+     * @return Repetições x carga, zero sem carga
+     */
+    public double volume() {
+        return reps == null || loadKg == null ? 0 : reps * loadKg;
+    }
+
+    /**
+     * 1RM estimado pela fórmula de Epley
+     * @return Carga máxima estimada para uma repetição, ou null sem repetições/carga
+     */
+    public Double estimatedOneRepMax() {
+        if (reps == null || reps < 1 || loadKg == null || loadKg <= 0) {
+            return null;
+        }
+        return reps == 1 ? loadKg : loadKg * (1 + reps / 30.0);
+    }
+}
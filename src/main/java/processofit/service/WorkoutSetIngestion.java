@@ -0,0 +1,283 @@
+package processofit.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import processofit.infra.persistence.PersistenceFailures;
+import processofit.model.workout.dto.WorkoutSetDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Ingestão assíncrona de séries de treino
+ * As séries aceitas vão para uma fila limitada em memória e uma thread dedicada as grava em lotes,
+ * cada lote em uma transação; com a fila cheia o envio é rejeitado na hora em vez de bloquear
+ */
+@Slf4j
+@Component
+public class WorkoutSetIngestion {
+
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    @Value("${app.workout.ingestion.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.workout.ingestion.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.workout.ingestion.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.workout.ingestion.max-backoff:30s}")
+    private Duration maxBackoff;
+
+    @Value("${app.workout.ingestion.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    @Autowired
+    private WorkoutSetService workoutSetService;
+
+    @Autowired
+    private ExerciseService exerciseService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final BlockingQueue<PendingWorkoutSet> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Vagas na fila; liberadas só depois que o lote é gravado (ou descartado)
+     */
+    private Semaphore capacity;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter accepted;
+    private Counter rejected;
+    private Counter written;
+    private Counter dropped;
+
+    @PostConstruct
+    void start() {
+        this.capacity = new Semaphore(queueCapacity);
+        Gauge.builder("workout.ingestion.queue", queue, BlockingQueue::size)
+                .description("Séries aguardando gravação")
+                .register(meterRegistry);
+        this.accepted = ingestionCounter("accepted", "Séries aceitas na fila");
+        this.rejected = ingestionCounter("rejected", "Séries rejeitadas com a fila cheia");
+        this.written = ingestionCounter("written", "Séries gravadas no banco");
+        this.dropped = ingestionCounter("dropped", "Séries descartadas: recusadas pelo banco ou pendentes no encerramento");
+
+        this.running = true;
+        this.writer = new CustomizableThreadFactory("workout-ingestion-").newThread(this::drain);
+        writer.start();
+    }
+
+    /**
+     * Valida e enfileira as séries do usuário; tudo ou nada
+     * @param userId ID do usuário dono das séries
+     * @param sets Séries a gravar
+     * @return Número de séries aceitas
+     * @throws IllegalArgumentException se alguma série for inválida
+     * @throws WorkoutIngestionRejectedException se a fila não comportar o lote
+     */
+    public int submit(Long userId, List<WorkoutSetDTO> sets) {
+        validate(sets);
+        if (!running || !capacity.tryAcquire(sets.size())) {
+            rejected.increment(sets.size());
+            throw new WorkoutIngestionRejectedException("Fila de ingestão de séries cheia");
+        }
+        for (WorkoutSetDTO set : sets) {
+            queue.add(new PendingWorkoutSet(userId, set));
+        }
+        accepted.increment(sets.size());
+        return sets.size();
+    }
+
+    /**
+     * Para de aceitar séries e grava o que já está na fila antes de encerrar
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (!queue.isEmpty()) {
+            log.warn("{} séries não gravadas no encerramento", queue.size());
+        }
+    }
+
+    private void drain() {
+        List<PendingWorkoutSet> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWorkoutSet first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWorkoutSet> batch) throws InterruptedException {
+        try {
+            writeOrIsolate(batch);
+        } finally {
+            capacity.release(batch.size());
+        }
+    }
+
+    /**
+     * Grava as séries em uma transação
+     * Se o banco recusa os dados, ou outra falha persiste por max-attempts tentativas, separa as séries
+     * por usuário e depois uma a uma, e só a série que falha sozinha é descartada
+     * Falhas transitórias (conexão, failover, timeout, lock) não separam nem descartam nada
+     */
+    private void writeOrIsolate(List<PendingWorkoutSet> sets) throws InterruptedException {
+        RuntimeException error = writeWithRetry(sets);
+        if (error == null) {
+            return;
+        }
+        // Transitória aqui só no encerramento: não adianta separar com o banco fora do ar
+        if (sets.size() == 1 || isTransient(error)) {
+            sets.forEach(item -> drop(item, error));
+            return;
+        }
+        log.warn("Lote de {} séries falhou; gravando em partes: {}", sets.size(), error.getMessage());
+        for (List<PendingWorkoutSet> part : split(sets)) {
+            writeOrIsolate(part);
+        }
+    }
+
+    /**
+     * Tenta gravar até dar certo enquanto a falha for transitória, com espera crescente até max-backoff;
+     * dados recusados voltam na hora e outras falhas depois de max-attempts tentativas
+     * @return null se gravou, ou a última falha
+     */
+    private RuntimeException writeWithRetry(List<PendingWorkoutSet> sets) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            RuntimeException error = tryWrite(sets);
+            if (error == null || PersistenceFailures.isRejectedData(error)) {
+                return error;
+            }
+            boolean transientError = isTransient(error);
+            if (transientError ? !running : attempt >= maxAttempts) {
+                return error;
+            }
+            long backoff = Math.min(RETRY_BACKOFF_MS << Math.min(attempt - 1, 16), maxBackoff.toMillis());
+            log.warn("Erro{} ao gravar {} séries (tentativa {}), nova tentativa em {} ms: {}",
+                    transientError ? " transitório" : "", sets.size(), attempt, backoff, error.getMessage());
+            Thread.sleep(backoff);
+        }
+    }
+
+    private static boolean isTransient(RuntimeException error) {
+        return PersistenceFailures.isTransient(error) && !PersistenceFailures.isRejectedData(error);
+    }
+
+    /**
+     * Um lote de vários usuários se divide por usuário; o de um usuário só, série a série
+     */
+    private static Collection<List<PendingWorkoutSet>> split(List<PendingWorkoutSet> sets) {
+        Map<Long, List<PendingWorkoutSet>> byUser = sets.stream()
+                .collect(Collectors.groupingBy(PendingWorkoutSet::userId, LinkedHashMap::new, Collectors.toList()));
+        if (byUser.size() > 1) {
+            return byUser.values();
+        }
+        return sets.stream().map(item -> List.of(item)).toList();
+    }
+
+    private RuntimeException tryWrite(List<PendingWorkoutSet> sets) {
+        try {
+            workoutSetService.ingest(sets);
+            written.increment(sets.size());
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * A série descartada vai inteira para o log de erro, para poder ser reenviada depois
+     */
+    private void drop(PendingWorkoutSet item, RuntimeException error) {
+        dropped.increment();
+        WorkoutSetDTO set = item.set();
+        log.error("Série descartada: usuário {}, exercício {}, data {}, repetições {}, carga {}, duração {}, esforço {}",
+                item.userId(), set.exerciseId(), set.date(), set.reps(), set.loadKg(),
+                set.durationSeconds(), set.perceivedEffort(), error);
+    }
+
+    private void validate(List<WorkoutSetDTO> sets) {
+        if (sets == null || sets.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma série informada");
+        }
+        if (sets.size() > queueCapacity) {
+            throw new IllegalArgumentException("Lote maior que a capacidade da fila (" + queueCapacity + ")");
+        }
+        // Margem de um dia para fusos horários adiantados em relação ao servidor
+        LocalDate latest = LocalDate.now().plusDays(1);
+        for (WorkoutSetDTO set : sets) {
+            if (set == null || set.exerciseId() == null || set.date() == null) {
+                throw new IllegalArgumentException("Série sem exercício ou data");
+            }
+            if (set.date().isAfter(latest)) {
+                throw new IllegalArgumentException("Série com data futura: " + set.date());
+            }
+            if (isNegative(set.reps()) || isNegative(set.durationSeconds())
+                    || (set.loadKg() != null && set.loadKg() < 0)) {
+                throw new IllegalArgumentException("Série com valores negativos");
+            }
+            if (set.perceivedEffort() != null && (set.perceivedEffort() < 1 || set.perceivedEffort() > 10)) {
+                throw new IllegalArgumentException("Esforço percebido deve estar entre 1 e 10");
+            }
+        }
+        // Poucos exercícios distintos por lote, servidos pelo cache de segundo nível
+        sets.stream()
+                .map(WorkoutSetDTO::exerciseId)
+                .distinct()
+                .filter(exerciseId -> !exerciseService.existsById(exerciseId))
+                .findFirst()
+                .ifPresent(exerciseId -> {
+                    throw new IllegalArgumentException("Exercício não encontrado: " + exerciseId);
+                });
+    }
+
+    private static boolean isNegative(Integer value) {
+        return value != null && value < 0;
+    }
+
+    private Counter ingestionCounter(String result, String description) {
+        return Counter.builder("workout.ingestion.sets")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,112 @@
+package processofit.service;
+
+import processofit.model.user.User;
+import processofit.model.workout.Exercise;
+import processofit.model.workout.WorkoutSession;
+import processofit.model.workout.WorkoutSet;
+import processofit.model.workout.dto.WorkoutSetDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class WorkoutSetService extends GenericCrudService<WorkoutSet, Long> {
+
+    @Autowired
+    private WorkoutSessionService sessionService;
+
+    @Autowired
+    private ProgressRollupService rollupService;
+
+    /**
+     * Grava um lote de séries da ingestão em uma única transação
+     * Os treinos que ainda não existem são criados; treinos e séries são inseridos em batch
+     * e os agregados de evolução são atualizados na mesma transação
+     * @param batch Séries aceitas pela ingestão, de um ou mais usuários
+     * @return Séries gravadas
+     */
+    public List<WorkoutSet> ingest(List<PendingWorkoutSet> batch) {
+        return execute("ingest", "Erro ao gravar lote de séries", () -> {
+            Map<Long, List<PendingWorkoutSet>> byUser = batch.stream()
+                    .collect(Collectors.groupingBy(PendingWorkoutSet::userId, LinkedHashMap::new, Collectors.toList()));
+            rollupService.lockUsers(byUser.keySet());
+
+            Map<Long, Map<LocalDate, WorkoutSession>> sessions = new HashMap<>();
+            List<WorkoutSession> created = new ArrayList<>();
+            byUser.forEach((userId, pending) ->
+                    sessions.put(userId, sessionsOf(userId, pending, created)));
+            sessionService.saveAll(created);
+
+            List<WorkoutSet> sets = new ArrayList<>(batch.size());
+            List<PendingWorkoutSet> ordered = new ArrayList<>(batch.size());
+            byUser.forEach((userId, pending) -> {
+                Map<LocalDate, WorkoutSession> userSessions = sessions.get(userId);
+                for (PendingWorkoutSet item : pending) {
+                    WorkoutSetDTO set = item.set();
+                    sets.add(new WorkoutSet(
+                            userSessions.get(set.date()),
+                            getEntityManager().getReference(Exercise.class, set.exerciseId()),
+                            set.reps(),
+                            set.loadKg(),
+                            set.durationSeconds(),
+                            set.perceivedEffort()));
+                    ordered.add(item);
+                }
+            });
+            List<WorkoutSet> saved = saveAll(sets);
+
+            List<WorkoutSetFact> facts = new ArrayList<>(saved.size());
+            for (int i = 0; i < saved.size(); i++) {
+                WorkoutSetDTO set = ordered.get(i).set();
+                facts.add(new WorkoutSetFact(ordered.get(i).userId(), set.exerciseId(), set.date(),
+                        set.reps(), set.loadKg(), saved.get(i).getId()));
+            }
+            rollupService.apply(facts);
+            return saved;
+        });
+    }
+
+    /**
+     * Remove as séries de todos os treinos dos usuários com um único DELETE
+     * @param userIds IDs dos usuários
+     * @return Número de séries removidas
+     */
+    public int deleteByUsers(Collection<Long> userIds) {
+        return deleteWhere((root, cb) -> root.get("session").get("user").get("id").in(userIds));
+    }
+
+    /**
+     * Treinos do usuário nas datas do lote, com uma consulta pelo intervalo de datas
+     * Os que faltam são criados e adicionados a created
+     */
+    private Map<LocalDate, WorkoutSession> sessionsOf(Long userId, List<PendingWorkoutSet> pending,
+                                                      List<WorkoutSession> created) {
+        List<LocalDate> dates = pending.stream()
+                .map(item -> item.set().date())
+                .distinct()
+                .sorted(Comparator.naturalOrder())
+                .toList();
+
+        Map<LocalDate, WorkoutSession> sessions = new HashMap<>();
+        for (WorkoutSession session : sessionService.findByUser(userId, dates.get(0), dates.get(dates.size() - 1))) {
+            sessions.put(session.getDate(), session);
+        }
+        for (LocalDate date : dates) {
+            sessions.computeIfAbsent(date, missing -> {
+                WorkoutSession session = new WorkoutSession(getEntityManager().getReference(User.class, userId), missing);
+                created.add(session);
+                return session;
+            });
+        }
+        return sessions;
+    }
+}
@@ -0,0 +1,12 @@
+-- Executado após o Hibernate criar/atualizar as tabelas (spring.jpa.defer-datasource-initialization)
+
+-- Busca por nome (UserService.searchByName): trigramas para substring/similaridade
+-- e text_pattern_ops para prefixo
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS users_name_trgm_idx ON users USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_name_prefix_idx ON users (lower(name) text_pattern_ops);
+
+-- users_seq (User.id com allocationSize 50) é criado pelo Hibernate começando em 1; em bancos
+-- cujos IDs vieram da antiga coluna IDENTITY, avança a sequence para depois do maior ID.
+-- Idempotente: nunca recua a sequence
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM users), (SELECT last_value FROM users_seq)));
@@ -0,0 +1,63 @@
+package processofit.model.workout;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollupPeriodTest {
+
+	@Test
+	void dayStartsOnTheDateItself() {
+		LocalDate date = LocalDate.of(2025, 3, 15);
+
+		assertEquals(date, RollupPeriod.DAY.start(date));
+	}
+
+	@Test
+	void weekStartsOnMonday() {
+		LocalDate monday = LocalDate.of(2025, 1, 6);
+
+		assertEquals(monday, RollupPeriod.WEEK.start(monday));
+		assertEquals(monday, RollupPeriod.WEEK.start(LocalDate.of(2025, 1, 8)));
+		assertEquals(monday, RollupPeriod.WEEK.start(LocalDate.of(2025, 1, 12)));
+	}
+
+	@Test
+	void weekStartCanFallInThePreviousMonthAndYear() {
+		assertEquals(LocalDate.of(2024, 12, 30), RollupPeriod.WEEK.start(LocalDate.of(2025, 1, 1)));
+	}
+
+	@Test
+	void monthStartsOnTheFirstDay() {
+		assertEquals(LocalDate.of(2024, 2, 1), RollupPeriod.MONTH.start(LocalDate.of(2024, 2, 29)));
+		assertEquals(LocalDate.of(2025, 1, 1), RollupPeriod.MONTH.start(LocalDate.of(2025, 1, 1)));
+	}
+
+	@Test
+	void minusStepsBackWholePeriods() {
+		assertEquals(LocalDate.of(2025, 2, 28), RollupPeriod.DAY.minus(LocalDate.of(2025, 3, 1), 1));
+		assertEquals(LocalDate.of(2024, 12, 23), RollupPeriod.WEEK.minus(LocalDate.of(2025, 1, 6), 2));
+		assertEquals(LocalDate.of(2024, 3, 1), RollupPeriod.MONTH.minus(LocalDate.of(2025, 3, 1), 12));
+	}
+
+	@Test
+	void minusOfAPeriodStartIsAPeriodStart() {
+		for (RollupPeriod period : RollupPeriod.values()) {
+			LocalDate start = period.start(LocalDate.of(2025, 3, 31));
+			LocalDate previous = period.minus(start, 11);
+
+			assertEquals(previous, period.start(previous), period.name());
+		}
+	}
+
+	@Test
+	void minusZeroKeepsTheStart() {
+		LocalDate start = LocalDate.of(2025, 3, 1);
+
+		for (RollupPeriod period : RollupPeriod.values()) {
+			assertEquals(start, period.minus(start, 0), period.name());
+		}
+	}
+}
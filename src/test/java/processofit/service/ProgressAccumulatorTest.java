@@ -0,0 +1,208 @@
+package processofit.service;
+
+import processofit.model.user.User;
+import processofit.model.workout.Exercise;
+import processofit.model.workout.PersonalRecord;
+import processofit.model.workout.PersonalRecordType;
+import processofit.model.workout.ProgressRollup;
+import processofit.model.workout.RollupPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProgressAccumulatorTest {
+
+	private static final long USER_ID = 7L;
+	private static final long SQUAT = 1L;
+	private static final long BENCH = 2L;
+
+	// 2025-03-10 é uma segunda-feira
+	private static final LocalDate MONDAY = LocalDate.of(2025, 3, 10);
+	private static final LocalDate WEDNESDAY = MONDAY.plusDays(2);
+	private static final LocalDate NEXT_MONDAY = MONDAY.plusWeeks(1);
+
+	private List<ProgressRollup> createdRollups;
+	private List<PersonalRecord> createdRecords;
+	private ProgressAccumulator accumulator;
+	private long nextSetId;
+
+	@BeforeEach
+	void setUp() {
+		createdRollups = new ArrayList<>();
+		createdRecords = new ArrayList<>();
+		User user = new User();
+		user.setId(USER_ID);
+		accumulator = new ProgressAccumulator(user, ProgressAccumulatorTest::exercise, createdRollups, createdRecords);
+		nextSetId = 1;
+	}
+
+	@Test
+	void setsOfTheSameDayCountOneSession() {
+		accumulator.add(set(SQUAT, MONDAY, 5, 100.0));
+		accumulator.add(set(SQUAT, MONDAY, 5, 100.0));
+
+		assertEquals(3, createdRollups.size());
+		for (RollupPeriod period : RollupPeriod.values()) {
+			ProgressRollup rollup = rollup(SQUAT, period, MONDAY);
+			assertEquals(1, rollup.getSessionCount(), period.name());
+			assertEquals(2, rollup.getSetCount(), period.name());
+			assertEquals(10, rollup.getTotalReps(), period.name());
+			assertEquals(1000.0, rollup.getTotalVolume(), period.name());
+		}
+	}
+
+	@Test
+	void eachTrainingDayIsASessionOfTheWeekAndMonth() {
+		accumulator.add(set(SQUAT, MONDAY, 5, 100.0));
+		accumulator.add(set(SQUAT, WEDNESDAY, 5, 100.0));
+		accumulator.add(set(SQUAT, NEXT_MONDAY, 5, 100.0));
+
+		assertEquals(1, rollup(SQUAT, RollupPeriod.DAY, MONDAY).getSessionCount());
+		assertEquals(1, rollup(SQUAT, RollupPeriod.DAY, WEDNESDAY).getSessionCount());
+		assertEquals(2, rollup(SQUAT, RollupPeriod.WEEK, MONDAY).getSessionCount());
+		assertEquals(1, rollup(SQUAT, RollupPeriod.WEEK, NEXT_MONDAY).getSessionCount());
+		assertEquals(3, rollup(SQUAT, RollupPeriod.MONTH, MONDAY).getSessionCount());
+	}
+
+	@Test
+	void sessionsAreCountedPerExercise() {
+		accumulator.add(set(SQUAT, MONDAY, 5, 100.0));
+		accumulator.add(set(BENCH, MONDAY, 5, 80.0));
+
+		assertEquals(6, createdRollups.size());
+		assertEquals(1, rollup(SQUAT, RollupPeriod.WEEK, MONDAY).getSessionCount());
+		assertEquals(1, rollup(BENCH, RollupPeriod.WEEK, MONDAY).getSessionCount());
+	}
+
+	@Test
+	void loadedDayRollupIsNotASecondSession() {
+		ProgressRollup day = loadedRollup(SQUAT, RollupPeriod.DAY, MONDAY, 1);
+		ProgressRollup week = loadedRollup(SQUAT, RollupPeriod.WEEK, MONDAY, 1);
+		ProgressRollup month = loadedRollup(SQUAT, RollupPeriod.MONTH, MONDAY, 1);
+
+		accumulator.add(set(SQUAT, MONDAY, 5, 100.0));
+
+		assertTrue(createdRollups.isEmpty());
+		assertEquals(1, day.getSessionCount());
+		assertEquals(1, week.getSessionCount());
+		assertEquals(1, month.getSessionCount());
+		assertEquals(1, day.getSetCount());
+	}
+
+	@Test
+	void newDayInsideALoadedWeekAddsASession() {
+		ProgressRollup week = loadedRollup(SQUAT, RollupPeriod.WEEK, MONDAY, 1);
+		ProgressRollup month = loadedRollup(SQUAT, RollupPeriod.MONTH, MONDAY, 1);
+
+		accumulator.add(set(SQUAT, WEDNESDAY, 5, 100.0));
+
+		assertEquals(1, createdRollups.size());
+		assertEquals(1, rollup(SQUAT, RollupPeriod.DAY, WEDNESDAY).getSessionCount());
+		assertEquals(2, week.getSessionCount());
+		assertEquals(2, month.getSessionCount());
+	}
+
+	@Test
+	void firstSetCreatesEveryRecord() {
+		WorkoutSetFact set = set(SQUAT, MONDAY, 5, 100.0);
+		accumulator.add(set);
+
+		assertEquals(3, createdRecords.size());
+		assertRecord(PersonalRecordType.MAX_LOAD, 100.0, MONDAY, set.workoutSetId());
+		assertRecord(PersonalRecordType.ESTIMATED_ONE_REP_MAX, set.estimatedOneRepMax(), MONDAY, set.workoutSetId());
+		assertRecord(PersonalRecordType.MAX_SET_VOLUME, 500.0, MONDAY, set.workoutSetId());
+	}
+
+	@Test
+	void betterSetReplacesTheRecord() {
+		accumulator.add(set(SQUAT, MONDAY, 5, 100.0));
+		WorkoutSetFact heavier = set(SQUAT, WEDNESDAY, 3, 110.0);
+		accumulator.add(heavier);
+
+		assertEquals(3, createdRecords.size());
+		assertRecord(PersonalRecordType.MAX_LOAD, 110.0, WEDNESDAY, heavier.workoutSetId());
+		// 500 kg da segunda continuam maiores que os 330 kg da quarta
+		assertRecord(PersonalRecordType.MAX_SET_VOLUME, 500.0, MONDAY, 1L);
+	}
+
+	@Test
+	void tieKeepsTheFirstAchievement() {
+		WorkoutSetFact first = set(SQUAT, MONDAY, 5, 100.0);
+		accumulator.add(first);
+		accumulator.add(set(SQUAT, WEDNESDAY, 5, 100.0));
+
+		assertRecord(PersonalRecordType.MAX_LOAD, 100.0, MONDAY, first.workoutSetId());
+		assertRecord(PersonalRecordType.ESTIMATED_ONE_REP_MAX, first.estimatedOneRepMax(), MONDAY, first.workoutSetId());
+	}
+
+	@Test
+	void loadedRecordIsOnlyReplacedByABetterSet() {
+		PersonalRecord loaded = new PersonalRecord(null, exercise(SQUAT), PersonalRecordType.MAX_LOAD);
+		loaded.setValue(150.0);
+		loaded.setAchievedOn(MONDAY.minusMonths(1));
+		accumulator.load(loaded);
+
+		accumulator.add(set(SQUAT, MONDAY, 5, 100.0));
+		assertEquals(150.0, loaded.getValue());
+		assertEquals(MONDAY.minusMonths(1), loaded.getAchievedOn());
+
+		WorkoutSetFact heavier = set(SQUAT, WEDNESDAY, 1, 160.0);
+		accumulator.add(heavier);
+		assertEquals(160.0, loaded.getValue());
+		assertEquals(heavier.workoutSetId(), loaded.getWorkoutSetId());
+		assertTrue(createdRecords.stream().noneMatch(record -> record.getType() == PersonalRecordType.MAX_LOAD));
+	}
+
+	@Test
+	void bodyweightSetCreatesNoRecords() {
+		accumulator.add(set(SQUAT, MONDAY, 20, null));
+
+		assertTrue(createdRecords.isEmpty());
+		ProgressRollup day = rollup(SQUAT, RollupPeriod.DAY, MONDAY);
+		assertEquals(20, day.getTotalReps());
+		assertNull(day.getMaxLoadKg());
+		assertNull(day.getEstimatedOneRepMax());
+	}
+
+	private WorkoutSetFact set(long exerciseId, LocalDate date, Integer reps, Double loadKg) {
+		return new WorkoutSetFact(USER_ID, exerciseId, date, reps, loadKg, nextSetId++);
+	}
+
+	private ProgressRollup loadedRollup(long exerciseId, RollupPeriod period, LocalDate date, int sessions) {
+		ProgressRollup rollup = new ProgressRollup(null, exercise(exerciseId), period, period.start(date));
+		rollup.setSessionCount(sessions);
+		accumulator.load(rollup);
+		return rollup;
+	}
+
+	private ProgressRollup rollup(long exerciseId, RollupPeriod period, LocalDate date) {
+		return createdRollups.stream()
+				.filter(rollup -> rollup.getExercise().getId() == exerciseId)
+				.filter(rollup -> rollup.getPeriod() == period && rollup.getPeriodStart().equals(period.start(date)))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private void assertRecord(PersonalRecordType type, Double value, LocalDate achievedOn, Long workoutSetId) {
+		PersonalRecord record = createdRecords.stream()
+				.filter(candidate -> candidate.getType() == type)
+				.findFirst()
+				.orElseThrow();
+		assertEquals(value, record.getValue(), 1e-9, type.name());
+		assertEquals(achievedOn, record.getAchievedOn(), type.name());
+		assertEquals(workoutSetId, record.getWorkoutSetId(), type.name());
+	}
+
+	private static Exercise exercise(Long id) {
+		Exercise exercise = new Exercise();
+		exercise.setId(id);
+		return exercise;
+	}
+}
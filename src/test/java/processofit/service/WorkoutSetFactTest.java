@@ -0,0 +1,47 @@
+package processofit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WorkoutSetFactTest {
+
+	private static final LocalDate DATE = LocalDate.of(2025, 3, 10);
+
+	@Test
+	void oneRepMaxOfASingleIsTheLoad() {
+		assertEquals(100.0, fact(1, 100.0).estimatedOneRepMax());
+	}
+
+	@Test
+	void oneRepMaxFollowsEpley() {
+		assertEquals(100.0 * (1 + 10 / 30.0), fact(10, 100.0).estimatedOneRepMax(), 1e-9);
+		assertEquals(120.0, fact(30, 60.0).estimatedOneRepMax(), 1e-9);
+	}
+
+	@Test
+	void oneRepMaxNeedsRepsAndLoad() {
+		assertNull(fact(null, 100.0).estimatedOneRepMax());
+		assertNull(fact(0, 100.0).estimatedOneRepMax());
+		assertNull(fact(5, null).estimatedOneRepMax());
+		assertNull(fact(5, 0.0).estimatedOneRepMax());
+	}
+
+	@Test
+	void volumeIsRepsTimesLoad() {
+		assertEquals(500.0, fact(10, 50.0).volume());
+	}
+
+	@Test
+	void volumeWithoutRepsOrLoadIsZero() {
+		assertEquals(0.0, fact(10, null).volume());
+		assertEquals(0.0, fact(null, 50.0).volume());
+	}
+
+	private static WorkoutSetFact fact(Integer reps, Double loadKg) {
+		return new WorkoutSetFact(1L, 1L, DATE, reps, loadKg, 1L);
+	}
+}